@@ -0,0 +1,90 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dyngr.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.dyngr.Polling;
+import com.dyngr.PollingTemplate;
+import com.dyngr.core.AttemptMaker;
+import com.dyngr.core.AttemptResult;
+import com.dyngr.core.AttemptResults;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link Polling.PollingOptions#run(AttemptMaker)} against a prebuilt {@link PollingTemplate}.
+ * Run with <code>-prof gc</code> to see allocation per operation.
+ *
+ * @author dingye
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PollingTemplateBenchmark {
+    /**
+     * attempts needed before polling is finished
+     */
+    @Param({"1", "3"})
+    private int attempts;
+
+    private PollingTemplate template;
+    private AttemptMaker<String> maker;
+
+    @Setup
+    public void setUp() {
+        template = Polling
+                .waitPeriodly(0, TimeUnit.MILLISECONDS)
+                .stopAfterAttempt(5)
+                .template();
+        maker = new AttemptMaker<String>() {
+            private int count;
+
+            @Override
+            public AttemptResult<String> process() {
+                if (++count % attempts == 0) {
+                    return AttemptResults.finishWith("done");
+                }
+                return AttemptResults.justContinue();
+            }
+        };
+    }
+
+    @Benchmark
+    public String pollingRun() {
+        return Polling
+                .waitPeriodly(0, TimeUnit.MILLISECONDS)
+                .stopAfterAttempt(5)
+                .run(maker);
+    }
+
+    @Benchmark
+    public String templateRun() {
+        return template.run(maker);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dyngr.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.dyngr.Polling;
+import com.dyngr.PollingTemplate;
+import com.dyngr.core.AttemptMaker;
+import com.dyngr.core.AttemptResult;
+import com.dyngr.core.AttemptResults;
+import com.dyngr.core.BooleanAttemptMaker;
+import com.dyngr.core.BooleanAttemptResult;
+import com.dyngr.core.LongAttemptMaker;
+import com.dyngr.core.LongAttemptResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares generic polling of boxed values against primitive attempt makers.
+ * Run with <code>-prof gc</code> to see allocation per operation.
+ *
+ * @author dingye
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitivePollingBenchmark {
+    private PollingTemplate template;
+
+    private AttemptMaker<Long> boxedLongMaker;
+    private LongAttemptMaker longMaker;
+    private AttemptMaker<Boolean> boxedBooleanMaker;
+    private BooleanAttemptMaker booleanMaker;
+
+    @Setup
+    public void setUp() {
+        template = Polling
+                .stopAfterAttempt(5)
+                .template();
+
+        // offsets are out of range of Long's cache, just like real ones
+        boxedLongMaker = new AttemptMaker<Long>() {
+            private long offset = 1L << 32;
+
+            @Override
+            public AttemptResult<Long> process() {
+                return (offset++ & 1) == 0 ? AttemptResults.<Long>justContinue() : AttemptResults.finishWith(offset);
+            }
+        };
+        longMaker = new LongAttemptMaker() {
+            private long offset = 1L << 32;
+
+            @Override
+            public LongAttemptResult process() {
+                return (offset++ & 1) == 0 ? LongAttemptResult.justContinue() : LongAttemptResult.finishWith(offset);
+            }
+        };
+        boxedBooleanMaker = new AttemptMaker<Boolean>() {
+            private long count;
+
+            @Override
+            public AttemptResult<Boolean> process() {
+                return (count++ & 1) == 0 ? AttemptResults.<Boolean>justContinue() : AttemptResults.finishWith((count & 2) == 0);
+            }
+        };
+        booleanMaker = new BooleanAttemptMaker() {
+            private long count;
+
+            @Override
+            public BooleanAttemptResult process() {
+                return (count++ & 1) == 0 ? BooleanAttemptResult.justContinue() : BooleanAttemptResult.finishWith((count & 2) == 0);
+            }
+        };
+    }
+
+    @Benchmark
+    public long boxedLong() {
+        return template.run(boxedLongMaker);
+    }
+
+    @Benchmark
+    public long primitiveLong() {
+        return template.runLong(longMaker);
+    }
+
+    @Benchmark
+    public boolean boxedBoolean() {
+        return template.run(boxedBooleanMaker);
+    }
+
+    @Benchmark
+    public boolean primitiveBoolean() {
+        return template.runBoolean(booleanMaker);
+    }
+}
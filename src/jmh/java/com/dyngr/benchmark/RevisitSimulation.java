@@ -0,0 +1,167 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dyngr.benchmark;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.dyngr.core.ChangeRateEstimator;
+import com.dyngr.core.RevisitPolicy;
+import com.dyngr.core.RevisitScheduler;
+
+/**
+ * Simulates sources changing as Poisson processes, with mean intervals from seconds to days, polled at a fixed
+ * budget of attempts per second, and prints the average freshness of their copies when polled:
+ * <ul>
+ * <li>uniform: every source at the same interval</li>
+ * <li>learned: intervals split by {@link RevisitPolicy} from rates learned by {@link ChangeRateEstimator},
+ * as {@link RevisitScheduler} does</li>
+ * <li>oracle: intervals split by {@link RevisitPolicy} from true rates</li>
+ * </ul>
+ * Run by: <code>mvn -Pbenchmark test-compile</code>, then
+ * <code>java -cp target/classes:target/test-classes com.dyngr.benchmark.RevisitSimulation 1000 2</code>,
+ * with the number of sources and attempts per second as arguments.
+ *
+ * @author dingye
+ */
+public class RevisitSimulation {
+    private static final long DURATION = TimeUnit.DAYS.toMillis(7L);
+    private static final long MIN_INTERVAL = TimeUnit.SECONDS.toMillis(1L);
+    private static final long MAX_INTERVAL = TimeUnit.DAYS.toMillis(1L);
+
+    private final double[] rates;
+    private final double budget;
+    private final long seed;
+
+    RevisitSimulation(int sourceCount, double attemptsPerSecond, long seed) {
+        Random random = new Random(seed);
+        this.rates = new double[sourceCount];
+        double minLog = Math.log(TimeUnit.SECONDS.toMillis(10L));
+        double maxLog = Math.log(TimeUnit.DAYS.toMillis(3L));
+        for (int i = 0; i < sourceCount; i++) {
+            rates[i] = 1D / Math.exp(minLog + random.nextDouble() * (maxLog - minLog));
+        }
+        this.budget = attemptsPerSecond / 1000D;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) {
+        int sourceCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        double attemptsPerSecond = args.length > 1 ? Double.parseDouble(args[1]) : 2D;
+        RevisitSimulation simulation = new RevisitSimulation(sourceCount, attemptsPerSecond, 42L);
+
+        System.out.printf("%d sources, %.2f attempts per second, %d days%n",
+                sourceCount, attemptsPerSecond, TimeUnit.MILLISECONDS.toDays(DURATION));
+        System.out.printf("uniform: freshness %.3f%n", simulation.run(Mode.UNIFORM));
+        System.out.printf("learned: freshness %.3f%n", simulation.run(Mode.LEARNED));
+        System.out.printf("oracle:  freshness %.3f%n", simulation.run(Mode.ORACLE));
+    }
+
+    double run(Mode mode) {
+        Random random = new Random(seed);
+        int n = rates.length;
+        long[] intervals = new long[n];
+        long[] lastVisits = new long[n];
+        long[] nextChanges = new long[n];
+        ChangeRateEstimator[] estimators = new ChangeRateEstimator[n];
+        for (int i = 0; i < n; i++) {
+            estimators[i] = new ChangeRateEstimator(64);
+            nextChanges[i] = nextChange(0L, rates[i], random);
+        }
+        allocate(mode, estimators, intervals);
+
+        PriorityQueue<long[]> visits = new PriorityQueue<long[]>(n, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] a, long[] b) {
+                return a[0] < b[0] ? -1 : (a[0] == b[0] ? 0 : 1);
+            }
+        });
+        for (int i = 0; i < n; i++) {
+            // spreads first visits over the first interval
+            visits.add(new long[]{(long) (random.nextDouble() * intervals[i]), i});
+        }
+
+        double staleTime = 0D;
+        long visitCount = 0L;
+        while (!visits.isEmpty() && visits.peek()[0] < DURATION) {
+            long[] visit = visits.poll();
+            long now = visit[0];
+            int i = (int) visit[1];
+
+            boolean changed = nextChanges[i] <= now;
+            if (changed) {
+                staleTime += now - nextChanges[i];
+                nextChanges[i] = nextChange(now, rates[i], random);
+            }
+            estimators[i].observe(now - lastVisits[i], changed);
+            lastVisits[i] = now;
+
+            if (mode == Mode.LEARNED && ++visitCount % n == 0) {
+                allocate(mode, estimators, intervals);
+            }
+            visit[0] = now + intervals[i];
+            visits.add(visit);
+        }
+        for (int i = 0; i < n; i++) {
+            if (nextChanges[i] < DURATION) {
+                staleTime += DURATION - nextChanges[i];
+            }
+        }
+        return 1D - staleTime / ((double) n * DURATION);
+    }
+
+    private void allocate(Mode mode, ChangeRateEstimator[] estimators, long[] intervals) {
+        int n = rates.length;
+        double[] frequencies;
+        if (mode == Mode.UNIFORM) {
+            frequencies = new double[n];
+            Arrays.fill(frequencies, budget / n);
+        } else if (mode == Mode.ORACLE) {
+            frequencies = RevisitPolicy.allocate(rates, budget, 1D / MAX_INTERVAL, 1D / MIN_INTERVAL);
+        } else {
+            double[] learned = new double[n];
+            double knownSum = 0D;
+            int knownCount = 0;
+            for (int i = 0; i < n; i++) {
+                learned[i] = estimators[i].getRate();
+                if (!Double.isNaN(learned[i])) {
+                    knownSum += learned[i];
+                    knownCount++;
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                if (Double.isNaN(learned[i])) {
+                    learned[i] = knownCount == 0 ? budget / n : knownSum / knownCount;
+                }
+            }
+            frequencies = RevisitPolicy.allocate(learned, budget, 1D / MAX_INTERVAL, 1D / MIN_INTERVAL);
+        }
+        for (int i = 0; i < n; i++) {
+            intervals[i] = Math.min(Math.max(Math.round(1D / frequencies[i]), MIN_INTERVAL), MAX_INTERVAL);
+        }
+    }
+
+    private static long nextChange(long now, double rate, Random random) {
+        return now + (long) Math.ceil(-Math.log(1D - random.nextDouble()) / rate);
+    }
+
+    enum Mode {
+        UNIFORM, LEARNED, ORACLE
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr;
+
+import com.dyngr.concurrent.ListenableFuture;
+
+/**
+ * A {@link Poller} whose future can be listened, so pollers can be combined without blocking a thread on each
+ * of them. All pollers built by {@link PollerBuilder} are listenable.
+ *
+ * @param <V> the type of result
+ * @author dingye
+ */
+public interface ListenablePoller<V> extends Poller<V> {
+    /**
+     * Start this poller.
+     *
+     * @return future of polling result
+     */
+    @Override
+    ListenableFuture<V> start();
+}
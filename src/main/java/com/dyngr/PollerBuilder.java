@@ -17,15 +17,23 @@
 package com.dyngr;
 
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.annotation.Nullable;
 
 import com.dyngr.concurrent.DirectExecutorService;
 import com.dyngr.core.Attempt;
+import com.dyngr.core.AttemptListener;
 import com.dyngr.core.AttemptMaker;
 import com.dyngr.core.DefaultPoller;
+import com.dyngr.core.PipelinedPoller;
+import com.dyngr.core.PollingLoop;
+import com.dyngr.core.ScheduledPoller;
 import com.dyngr.core.StopStrategies;
 import com.dyngr.core.StopStrategy;
 import com.dyngr.core.WaitStrategies;
 import com.dyngr.core.WaitStrategy;
+import com.dyngr.exception.PollerStoppedException;
 import com.dyngr.util.Preconditions;
 
 /**
@@ -40,6 +48,10 @@ public class PollerBuilder<V> {
     private StopStrategy    stopStrategy;
     private WaitStrategy    waitStrategy;
     private ExecutorService executorService;
+    private ScheduledExecutorService scheduler;
+    private int pipelineDepth;
+    private AttemptListener<? super V> attemptListener;
+    private long deadline = PollingLoop.NO_DEADLINE;
 
     /**
      * Sets the wait strategy used to decide how long to sleep between failed attempts.
@@ -118,15 +130,65 @@ public class PollerBuilder<V> {
      *
      * @param executorService the executor service which is used to do the polling.
      * @return <code>this</code>
-     * @throws IllegalStateException if an executor service has already been set.
+     * @throws IllegalStateException if an executor service or a scheduler has already been set.
      */
     public PollerBuilder<V> withExecutorService(ExecutorService executorService) {
         Preconditions.checkNotNull(executorService, "executorService should not be null");
         Preconditions.checkState(this.executorService == null, "a executorService has already been set %s", this.executorService);
+        Preconditions.checkState(this.scheduler == null, "a scheduler has already been set %s", this.scheduler);
         this.executorService = executorService;
         return this;
     }
 
+    /**
+     * Sets the {@link ScheduledExecutorService} on which {@link Poller} will be scheduled. Every attempt is scheduled
+     * on it after the wait time, so no thread is blocked between attempts. Many pollers can share one scheduler.
+     *
+     * @param scheduler the scheduler which is used to do the polling.
+     * @return <code>this</code>
+     * @throws IllegalStateException if a scheduler or an executor service has already been set.
+     */
+    public PollerBuilder<V> withScheduler(ScheduledExecutorService scheduler) {
+        Preconditions.checkNotNull(scheduler, "scheduler should not be null");
+        Preconditions.checkState(this.scheduler == null, "a scheduler has already been set %s", this.scheduler);
+        Preconditions.checkState(this.executorService == null, "a executorService has already been set %s", this.executorService);
+        this.scheduler = scheduler;
+        return this;
+    }
+
+    /**
+     * Keeps up to <code>depth</code> attempts in flight while attempts are draining, with results of all attempts
+     * given to the listener in order, see {@link PipelinedPoller}. A scheduler must be set as well.
+     *
+     * @param depth    max number of attempts in flight
+     * @param listener listener of results of every attempt
+     * @return <code>this</code>
+     * @throws IllegalStateException if pipelining has already been set.
+     */
+    public PollerBuilder<V> withPipelining(int depth, @Nullable AttemptListener<? super V> listener) {
+        Preconditions.checkArgument(depth > 0, "depth must be > 0 but is %d", depth);
+        Preconditions.checkState(this.pipelineDepth == 0, "pipelining has already been set");
+        this.pipelineDepth = depth;
+        this.attemptListener = listener;
+        return this;
+    }
+
+    /**
+     * Sets an absolute deadline by which polling must end. Waits are cut short so that the last attempt ends right
+     * before the deadline, and polling stops with a {@link PollerStoppedException} instead of
+     * waiting when no attempt can end by the deadline any more.
+     *
+     * @param deadline time in milliseconds as {@link System#currentTimeMillis()}
+     * @return <code>this</code>
+     * @throws IllegalStateException if a deadline has already been set.
+     */
+    public PollerBuilder<V> withDeadline(long deadline) {
+        Preconditions.checkState(this.deadline == PollingLoop.NO_DEADLINE, "a deadline has already been set %s", this.deadline);
+        Preconditions.checkArgument(deadline != PollingLoop.NO_DEADLINE, "deadline should not be Long.MAX_VALUE");
+        this.deadline = deadline;
+        return this;
+    }
+
     /**
      * Sets the code of actual polling.
      *
@@ -147,15 +209,42 @@ public class PollerBuilder<V> {
      * @return the built poller.
      */
     public Poller<V> build() {
+        return buildListenable();
+    }
+
+    /**
+     * Build the {@link Poller} instance as a {@link ListenablePoller}, to be combined with other pollers.
+     *
+     * @return the built poller.
+     */
+    public ListenablePoller<V> buildListenable() {
         Preconditions.checkNotNull(attemptMaker, "attemptMaker should not be null, please call polling() to add a AttemptMaker");
+        if (pipelineDepth > 0) {
+            Preconditions.checkState(scheduler != null, "pipelining needs a scheduler, please call withScheduler()");
+            return new PipelinedPoller<V>(attemptMaker, buildStopStrategy(), buildWaitStrategy(), scheduler,
+                    pipelineDepth, attemptListener, deadline);
+        }
+        if (scheduler != null) {
+            return new ScheduledPoller<V>(attemptMaker, buildStopStrategy(), buildWaitStrategy(), scheduler, deadline);
+        }
         return new DefaultPoller<V>(
                 attemptMaker,
                 buildStopStrategy(),
-                waitStrategy == null ? WaitStrategies.noWait() : waitStrategy,
-                executorService == null ? new DirectExecutorService() : executorService
+                buildWaitStrategy(),
+                executorService == null ? new DirectExecutorService() : executorService,
+                deadline
         );
     }
 
+    /**
+     * Build a {@link PollingTemplate} with strategies set to this builder. Attempt maker and executor service are ignored.
+     *
+     * @return the built template.
+     */
+    PollingTemplate buildTemplate() {
+        return new PollingTemplate(buildStopStrategy(), buildWaitStrategy());
+    }
+
     /**
      * Constructs a new builder
      *
@@ -166,6 +255,13 @@ public class PollerBuilder<V> {
         return new PollerBuilder<V>();
     }
 
+    /**
+     * Build a wait strategy based on user defined ones.
+     */
+    private WaitStrategy buildWaitStrategy() {
+        return waitStrategy == null ? WaitStrategies.noWait() : waitStrategy;
+    }
+
     /**
      * Build a stop strategy based on user defined ones.
      */
@@ -16,13 +16,20 @@
 package com.dyngr;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nonnull;
 
+import com.dyngr.core.AnyOfPoller;
 import com.dyngr.core.AttemptMaker;
+import com.dyngr.core.BooleanAttemptMaker;
+import com.dyngr.core.BulkPollingFuture;
+import com.dyngr.core.QuorumPoller;
+import com.dyngr.core.IntAttemptMaker;
+import com.dyngr.core.LongAttemptMaker;
 import com.dyngr.core.StopStrategies;
 import com.dyngr.core.StopStrategy;
 import com.dyngr.core.WaitStrategies;
@@ -78,6 +85,78 @@ public class Polling {
         return options.stopAfterAttempt(attemptNumber);
     }
 
+    /**
+     * Runs a group of pollers together and finishes with the first result, see {@link AnyOfPoller}.
+     *
+     * @param pollers pollers to race, which are better to be built with a shared scheduler
+     * @param <V> the type of result
+     * @return a poller finishes when any of given pollers finishes
+     */
+    @SafeVarargs
+    public static <V> ListenablePoller<V> anyOf(ListenablePoller<? extends V>... pollers) {
+        Preconditions.checkNotNull(pollers, "pollers should not be null");
+        // copied one by one, as passing the array on is reported as possible heap pollution
+        List<ListenablePoller<? extends V>> list = new ArrayList<ListenablePoller<? extends V>>(pollers.length);
+        for (ListenablePoller<? extends V> poller : pollers) {
+            list.add(poller);
+        }
+        return new AnyOfPoller<V>(list);
+    }
+
+    /**
+     * Runs a group of pollers together and finishes as soon as <code>quorum</code> of them finish, see {@link QuorumPoller}.
+     *
+     * @param quorum  number of pollers need to finish
+     * @param pollers pollers to run, which are better to be built with a shared scheduler
+     * @param <V> the type of result
+     * @return a poller finishes with results of the first <code>quorum</code> finished pollers
+     */
+    @SafeVarargs
+    public static <V> ListenablePoller<List<V>> quorum(int quorum, ListenablePoller<? extends V>... pollers) {
+        Preconditions.checkNotNull(pollers, "pollers should not be null");
+        // copied one by one, as passing the array on is reported as possible heap pollution
+        List<ListenablePoller<? extends V>> list = new ArrayList<ListenablePoller<? extends V>>(pollers.length);
+        for (ListenablePoller<? extends V> poller : pollers) {
+            list.add(poller);
+        }
+        return new QuorumPoller<V>(quorum, list);
+    }
+
+    /**
+     * Polls all given attempt makers with the same options and at most <code>parallelism</code> threads,
+     * failing at once if any of them fails. See {@link BulkPollingFuture}.
+     *
+     * @param attemptMakers attempt makers to poll
+     * @param options       options of every polling
+     * @param parallelism   maximum number of threads to make attempts
+     * @param <V> the type of result
+     * @return future of results in the same order as attempt makers
+     */
+    public static <V> BulkPollingFuture<V> runAll(Collection<? extends AttemptMaker<? extends V>> attemptMakers,
+                                                  PollingOptions options,
+                                                  int parallelism) {
+        return runAll(attemptMakers, options, parallelism, true);
+    }
+
+    /**
+     * Polls all given attempt makers with the same options and at most <code>parallelism</code> threads.
+     * See {@link BulkPollingFuture}.
+     *
+     * @param attemptMakers attempt makers to poll
+     * @param options       options of every polling
+     * @param parallelism   maximum number of threads to make attempts
+     * @param failFast      whether to fail at once if any attempt maker fails, or to go on with others
+     * @param <V> the type of result
+     * @return future of results in the same order as attempt makers
+     */
+    public static <V> BulkPollingFuture<V> runAll(Collection<? extends AttemptMaker<? extends V>> attemptMakers,
+                                                  PollingOptions options,
+                                                  int parallelism,
+                                                  boolean failFast) {
+        Preconditions.checkNotNull(options, "options should not be null");
+        return options.template().runAll(attemptMakers, parallelism, failFast);
+    }
+
     private static PollingOptions newOptions() {
         return new PollingOptions();
     }
@@ -165,9 +244,50 @@ public class Polling {
             }
         }
 
+        /**
+         * Build and run polling on current thread, waiting for the result without boxing it.
+         *
+         * @return the result of polling.
+         */
+        public long runLong(LongAttemptMaker attemptMaker) {
+            return template().runLong(attemptMaker);
+        }
+
+        /**
+         * Build and run polling on current thread, waiting for the result without boxing it.
+         *
+         * @return the result of polling.
+         */
+        public int runInt(IntAttemptMaker attemptMaker) {
+            return template().runInt(attemptMaker);
+        }
+
+        /**
+         * Build and run polling on current thread, waiting for the result without boxing it.
+         *
+         * @return the result of polling.
+         */
+        public boolean runBoolean(BooleanAttemptMaker attemptMaker) {
+            return template().runBoolean(attemptMaker);
+        }
+
+        /**
+         * Build a {@link PollingTemplate} with current options. The template can be kept and reused to run
+         * many attempt makers, changes made to these options afterwards won't affect it.
+         *
+         * @return the built template.
+         */
+        public PollingTemplate template() {
+            return configure(new PollerBuilder<Object>()).buildTemplate();
+        }
+
         private <V> Poller<V> build(AttemptMaker<V> attemptMaker) {
-            PollerBuilder<V> builder = new PollerBuilder<V>();
+            PollerBuilder<V> builder = configure(new PollerBuilder<V>());
+            builder.polling(attemptMaker);
+            return builder.build();
+        }
 
+        private <V> PollerBuilder<V> configure(PollerBuilder<V> builder) {
             if (stopIfException != null) {
                 builder.stopIfException(stopIfException);
             }
@@ -180,9 +300,7 @@ public class Polling {
                 builder.withWaitStrategy(waitStrategies.toArray(new WaitStrategy[]{}));
             }
 
-            builder.polling(attemptMaker);
-
-            return builder.build();
+            return builder;
         }
     }
 }
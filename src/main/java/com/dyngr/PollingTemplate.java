@@ -0,0 +1,227 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dyngr;
+
+import java.util.Collection;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.dyngr.concurrent.ListenableFuture;
+import com.dyngr.core.AttemptBatcher;
+import com.dyngr.core.AttemptMaker;
+import com.dyngr.core.AttemptResult;
+import com.dyngr.core.BooleanAttemptMaker;
+import com.dyngr.core.BooleanAttemptResult;
+import com.dyngr.core.BulkPollingFuture;
+import com.dyngr.core.IntAttemptMaker;
+import com.dyngr.core.IntAttemptResult;
+import com.dyngr.core.LongAttemptMaker;
+import com.dyngr.core.LongAttemptResult;
+import com.dyngr.core.PartitionListener;
+import com.dyngr.core.PartitionedAttemptMaker;
+import com.dyngr.core.PartitionedPollingFuture;
+import com.dyngr.core.PolledValue;
+import com.dyngr.core.PollingHub;
+import com.dyngr.core.PollingLoop;
+import com.dyngr.core.ScheduledPoller;
+import com.dyngr.core.StopStrategy;
+import com.dyngr.core.WaitStrategy;
+import com.dyngr.exception.PollerException;
+import com.dyngr.exception.PollerUnknownException;
+import com.dyngr.util.Preconditions;
+
+/**
+ * A prebuilt set of polling options, which runs {@link AttemptMaker} on the calling thread.
+ * <p>
+ * Unlike {@link Polling.PollingOptions#run(AttemptMaker)}, strategies are built only once and neither
+ * executor service nor future is created for each run, so a template is suitable to be kept in a field
+ * and used on a hot path.
+ * <p>
+ * A template is immutable, and is thread-safe as long as the strategies it was built with are.
+ *
+ * <pre>{@code
+ * private static final PollingTemplate TEMPLATE = Polling
+ *         .waitPeriodly(100, TimeUnit.MILLISECONDS)
+ *         .stopAfterAttempt(3)
+ *         .template();
+ *
+ * String message = TEMPLATE.run(fetchMessage);
+ * }</pre>
+ *
+ * @author dingye
+ */
+public final class PollingTemplate {
+    private final StopStrategy stopStrategy;
+    private final WaitStrategy waitStrategy;
+
+    PollingTemplate(StopStrategy stopStrategy, WaitStrategy waitStrategy) {
+        this.stopStrategy = stopStrategy;
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Run polling on current thread, waiting for the result.
+     *
+     * @param attemptMaker the polling body
+     * @param <V> the type of result
+     * @return the result of polling.
+     * @throws PollerException if polling is not finished successfully
+     */
+    public <V> V run(AttemptMaker<V> attemptMaker) {
+        return poll(attemptMaker).getResult();
+    }
+
+    /**
+     * Run polling on current thread, waiting for the result without boxing it.
+     *
+     * @param attemptMaker the polling body
+     * @return the result of polling.
+     * @throws PollerException if polling is not finished successfully
+     */
+    public long runLong(LongAttemptMaker attemptMaker) {
+        return ((LongAttemptResult) poll(attemptMaker)).getLongResult();
+    }
+
+    /**
+     * Run polling on current thread, waiting for the result without boxing it.
+     *
+     * @param attemptMaker the polling body
+     * @return the result of polling.
+     * @throws PollerException if polling is not finished successfully
+     */
+    public int runInt(IntAttemptMaker attemptMaker) {
+        return ((IntAttemptResult) poll(attemptMaker)).getIntResult();
+    }
+
+    /**
+     * Run polling on current thread, waiting for the result without boxing it.
+     *
+     * @param attemptMaker the polling body
+     * @return the result of polling.
+     * @throws PollerException if polling is not finished successfully
+     */
+    public boolean runBoolean(BooleanAttemptMaker attemptMaker) {
+        return ((BooleanAttemptResult) poll(attemptMaker)).getBooleanResult();
+    }
+
+    /**
+     * Starts polling on the given scheduler without blocking, see {@link ScheduledPoller}.
+     *
+     * @param attemptMaker the polling body
+     * @param scheduler    the scheduler to make attempts on
+     * @param <V> the type of result
+     * @return future of the result
+     */
+    public <V> ListenableFuture<V> schedule(AttemptMaker<V> attemptMaker, ScheduledExecutorService scheduler) {
+        Preconditions.checkNotNull(attemptMaker, "attemptMaker should not be null");
+        Preconditions.checkNotNull(scheduler, "scheduler should not be null");
+        return new ScheduledPoller<V>(attemptMaker, stopStrategy, waitStrategy, scheduler).start();
+    }
+
+    /**
+     * Starts polling a key by bulk calls of the given batcher, see {@link AttemptBatcher}.
+     *
+     * @param key     the key to poll
+     * @param batcher the batcher making attempts for many keys together
+     * @param <K> the type of key
+     * @param <V> the type of result
+     * @return future of the result
+     */
+    public <K, V> ListenableFuture<V> schedule(K key, AttemptBatcher<K, V> batcher) {
+        Preconditions.checkNotNull(batcher, "batcher should not be null");
+        return batcher.poll(key, stopStrategy, waitStrategy);
+    }
+
+    /**
+     * Creates a hub sharing continuous polling of resources among subscribers, every round polling with
+     * strategies of this template, see {@link PollingHub}.
+     *
+     * @param source           creates the attempt maker polling a key
+     * @param period           time between rounds
+     * @param timeUnit         unit of the period
+     * @param scheduler        scheduler to make attempts on
+     * @param deliveryExecutor executor to notify subscribers on
+     * @param <K> the type of key
+     * @param <V> the type of result
+     * @return the hub
+     */
+    public <K, V> PollingHub<K, V> newHub(PollingHub.Source<K, V> source, long period, TimeUnit timeUnit,
+                                          ScheduledExecutorService scheduler, Executor deliveryExecutor) {
+        return new PollingHub<K, V>(source, stopStrategy, waitStrategy, period, timeUnit, scheduler, deliveryExecutor);
+    }
+
+    /**
+     * Creates a value kept fresh by polling in background, every refresh polling with strategies of
+     * this template, see {@link PolledValue}. Loading the first value starts at once.
+     *
+     * @param attemptMaker polls the value
+     * @param ttl          how long a value is fresh
+     * @param maxStale     how long a value can still be served after expired, while it fails to be refreshed
+     * @param timeUnit     unit of <code>ttl</code> and <code>maxStale</code>
+     * @param scheduler    scheduler to refresh on
+     * @param <V> the type of value
+     * @return the polled value
+     */
+    public <V> PolledValue<V> newPolledValue(AttemptMaker<V> attemptMaker, long ttl, long maxStale, TimeUnit timeUnit,
+                                             ScheduledExecutorService scheduler) {
+        return new PolledValue<V>(attemptMaker, stopStrategy, waitStrategy, ttl, maxStale, timeUnit, scheduler).start();
+    }
+
+    /**
+     * Polls all given attempt makers with at most <code>parallelism</code> threads, see {@link BulkPollingFuture}.
+     *
+     * @param attemptMakers attempt makers to poll
+     * @param parallelism   maximum number of threads to make attempts
+     * @param failFast      whether to fail at once if any attempt maker fails, or to go on with others
+     * @param <V> the type of result
+     * @return future of results in the same order as attempt makers
+     */
+    public <V> BulkPollingFuture<V> runAll(Collection<? extends AttemptMaker<? extends V>> attemptMakers, int parallelism, boolean failFast) {
+        Preconditions.checkNotNull(attemptMakers, "attemptMakers should not be null");
+        return new BulkPollingFuture<V>(attemptMakers, stopStrategy, waitStrategy, parallelism, failFast).start();
+    }
+
+    /**
+     * Continuously polls all partitions of a partitioned source with at most <code>parallelism</code> threads,
+     * every partition with its own backoff, see {@link PartitionedPollingFuture}.
+     *
+     * @param partitionCount number of partitions
+     * @param attemptMaker   polling body of a partition
+     * @param parallelism    maximum number of threads to make attempts
+     * @param listener       listener of data got from partitions
+     * @param <V> the type of result
+     * @return future to track or cancel polling
+     */
+    public <V> PartitionedPollingFuture<V> runPartitioned(int partitionCount,
+                                                          PartitionedAttemptMaker<? extends V> attemptMaker,
+                                                          int parallelism,
+                                                          PartitionListener<? super V> listener) {
+        return new PartitionedPollingFuture<V>(partitionCount, attemptMaker, stopStrategy, waitStrategy,
+                parallelism, listener).start();
+    }
+
+    private <V> AttemptResult<V> poll(AttemptMaker<V> attemptMaker) {
+        Preconditions.checkNotNull(attemptMaker, "attemptMaker should not be null");
+        try {
+            return new PollingLoop<V>(attemptMaker, stopStrategy, waitStrategy).poll();
+        } catch (PollerException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new PollerUnknownException(e);
+        }
+    }
+}
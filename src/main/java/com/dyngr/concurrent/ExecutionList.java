@@ -0,0 +1,83 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dyngr.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import com.dyngr.util.Preconditions;
+
+/**
+ * Listeners of a {@link ListenableFuture}, which are run once by {@link #execute()} when the future is done.
+ * Listeners added after that are run at once.
+ *
+ * @author dingye
+ */
+final class ExecutionList {
+    private final Object lock = new Object();
+
+    @GuardedBy("lock")
+    private List<Runnable> listeners = new ArrayList<Runnable>(2);
+
+    void add(Runnable listener, Executor executor) {
+        Preconditions.checkNotNull(listener, "listener should not be null");
+        Preconditions.checkNotNull(executor, "executor should not be null");
+        Runnable task = new ListenerTask(listener, executor);
+        synchronized (lock) {
+            if (listeners != null) {
+                listeners.add(task);
+                return;
+            }
+        }
+        task.run();
+    }
+
+    void execute() {
+        List<Runnable> toRun;
+        synchronized (lock) {
+            toRun = listeners;
+            listeners = null;
+        }
+        if (toRun == null) {
+            return;
+        }
+        for (Runnable task : toRun) {
+            task.run();
+        }
+    }
+
+    private static class ListenerTask implements Runnable {
+        private final Runnable listener;
+        private final Executor executor;
+
+        public ListenerTask(Runnable listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        @Override
+        public void run() {
+            // a failed listener should never prevent others from being notified
+            try {
+                executor.execute(listener);
+            } catch (RuntimeException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dyngr.concurrent;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * A callback told of the outcome of a {@link ListenableFuture} once it is done, registered by
+ * {@link #addCallback}.
+ * <p>
+ * A cancelled future is taken as failed with a {@link CancellationException} unless {@link #onCancelled} is
+ * overridden.
+ *
+ * @param <V> the type of result
+ * @author dingye
+ */
+public abstract class FutureCallback<V> {
+    /**
+     * Registers a callback to be called on the given executor once a future is done,
+     * or immediately if it is already done.
+     *
+     * @param future   the future
+     * @param callback the callback
+     * @param executor the executor to call the callback on, see {@link DirectExecutor}
+     * @param <V>      the type of result
+     */
+    public static <V> void addCallback(final ListenableFuture<V> future, final FutureCallback<? super V> callback,
+                                       Executor executor) {
+        future.addListener(new Runnable() {
+            @Override
+            public void run() {
+                V result;
+                try {
+                    result = future.get();
+                } catch (ExecutionException e) {
+                    callback.onFailure(e.getCause());
+                    return;
+                } catch (CancellationException e) {
+                    callback.onCancelled(e);
+                    return;
+                } catch (InterruptedException e) {
+                    // never happens as future is done
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                callback.onSuccess(result);
+            }
+        }, executor);
+    }
+
+    /**
+     * Called when the future has succeeded.
+     *
+     * @param result result of the future
+     */
+    public abstract void onSuccess(V result);
+
+    /**
+     * Called when the future has failed.
+     *
+     * @param cause cause of the failure
+     */
+    public abstract void onFailure(Throwable cause);
+
+    /**
+     * Called when the future has been cancelled, calls {@link #onFailure} by default.
+     *
+     * @param e the exception telling the future is cancelled
+     */
+    public void onCancelled(CancellationException e) {
+        onFailure(e);
+    }
+}
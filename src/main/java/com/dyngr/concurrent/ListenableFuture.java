@@ -0,0 +1,36 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dyngr.concurrent;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+/**
+ * A {@link Future} that accepts listeners which will be run once it is done.
+ *
+ * @param <V> the type of result
+ * @author dingye
+ */
+public interface ListenableFuture<V> extends Future<V> {
+    /**
+     * Registers a listener to be run on the given executor once this future is done,
+     * or immediately if it is already done.
+     *
+     * @param listener the listener to run
+     * @param executor the executor to run the listener on, see {@link DirectExecutor}
+     */
+    void addListener(Runnable listener, Executor executor);
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dyngr.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A {@link FutureTask} that implements {@link ListenableFuture}.
+ *
+ * @param <V> the type of result
+ * @author dingye
+ */
+public class ListenableFutureTask<V> extends FutureTask<V> implements ListenableFuture<V> {
+    private final ExecutionList executionList = new ExecutionList();
+
+    public ListenableFutureTask(Callable<V> callable) {
+        super(callable);
+    }
+
+    @Override
+    public void addListener(Runnable listener, Executor executor) {
+        executionList.add(listener, executor);
+    }
+
+    @Override
+    protected void done() {
+        executionList.execute();
+    }
+}
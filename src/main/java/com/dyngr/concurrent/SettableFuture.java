@@ -0,0 +1,137 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dyngr.concurrent;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * A {@link ListenableFuture} whose result is set by {@link #set(Object)} or {@link #setException(Throwable)}.
+ * Only the first result set takes effect, later ones are ignored.
+ * <p>
+ * Subclasses can override {@link #done()} to be told once it is done, and must call <code>super.done()</code>,
+ * which runs the listeners.
+ *
+ * @param <V> the type of result
+ * @author dingye
+ */
+public class SettableFuture<V> implements ListenableFuture<V> {
+    private static final int PENDING = 0;
+    private static final int SUCCEEDED = 1;
+    private static final int FAILED = 2;
+    private static final int CANCELLED = 3;
+
+    private final Object lock = new Object();
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private final ExecutionList executionList = new ExecutionList();
+
+    /**
+     * written under the lock, read without it
+     */
+    private volatile int state = PENDING;
+
+    @GuardedBy("lock")
+    private V value;
+
+    @GuardedBy("lock")
+    private Throwable exception;
+
+    public void set(V value) {
+        complete(SUCCEEDED, value, null);
+    }
+
+    public void setException(Throwable t) {
+        complete(FAILED, null, t);
+    }
+
+    /**
+     * Cancels this future if it is not done yet. There is no thread running it, so
+     * <code>mayInterruptIfRunning</code> makes no difference.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return complete(CANCELLED, null, null);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return state == CANCELLED;
+    }
+
+    @Override
+    public boolean isDone() {
+        return state != PENDING;
+    }
+
+    @Override
+    public V get() throws InterruptedException, ExecutionException {
+        completed.await();
+        return report();
+    }
+
+    @Override
+    public V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (!completed.await(timeout, unit)) {
+            throw new TimeoutException();
+        }
+        return report();
+    }
+
+    @Override
+    public void addListener(Runnable listener, Executor executor) {
+        executionList.add(listener, executor);
+    }
+
+    /**
+     * Called once when this future is done, runs the listeners.
+     */
+    protected void done() {
+        executionList.execute();
+    }
+
+    private boolean complete(int newState, V newValue, Throwable newException) {
+        synchronized (lock) {
+            if (state != PENDING) {
+                return false;
+            }
+            value = newValue;
+            exception = newException;
+            state = newState;
+        }
+        completed.countDown();
+        done();
+        return true;
+    }
+
+    private V report() throws ExecutionException {
+        synchronized (lock) {
+            switch (state) {
+                case SUCCEEDED:
+                    return value;
+                case FAILED:
+                    throw new ExecutionException(exception);
+                default:
+                    throw new CancellationException();
+            }
+        }
+    }
+}
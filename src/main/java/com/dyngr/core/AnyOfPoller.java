@@ -0,0 +1,82 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import com.dyngr.ListenablePoller;
+import com.dyngr.Poller;
+import com.dyngr.concurrent.DirectExecutor;
+import com.dyngr.concurrent.FutureCallback;
+import com.dyngr.concurrent.ListenableFuture;
+import com.dyngr.concurrent.SettableFuture;
+import com.dyngr.exception.PollerStoppedException;
+import com.dyngr.util.Preconditions;
+
+/**
+ * A {@link Poller} that runs a group of pollers together, and finishes with the result of whichever
+ * finishes first. Other pollers are cancelled at once, including those waiting for next attempt.
+ * <p>
+ * It fails only when all pollers have failed, with a {@link PollerStoppedException} caused by the first
+ * failure, and other failures added as suppressed exceptions. This is a {@link QuorumPoller} of one.
+ * <p>
+ * Pollers are started one by one on the calling thread, so to let them race each other they should be
+ * built with a scheduler (see {@link com.dyngr.PollerBuilder#withScheduler}) or an executor service.
+ *
+ * @param <V> the type of result
+ * @author dingye
+ */
+public class AnyOfPoller<V> implements ListenablePoller<V> {
+    private final QuorumPoller<V> quorumPoller;
+
+    public AnyOfPoller(List<? extends ListenablePoller<? extends V>> pollers) {
+        Preconditions.checkArgument(!pollers.isEmpty(), "Must have at least one poller");
+        this.quorumPoller = new QuorumPoller<V>(1, pollers);
+    }
+
+    @Override
+    public ListenableFuture<V> start() {
+        final ListenableFuture<List<V>> quorum = quorumPoller.start();
+        final SettableFuture<V> result = new SettableFuture<V>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                quorum.cancel(mayInterruptIfRunning);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+
+        FutureCallback.addCallback(quorum, new FutureCallback<List<V>>() {
+            @Override
+            public void onSuccess(List<V> results) {
+                result.set(results.get(0));
+            }
+
+            @Override
+            public void onFailure(Throwable cause) {
+                result.setException(cause);
+            }
+
+            @Override
+            public void onCancelled(CancellationException e) {
+                result.cancel(false);
+            }
+        }, DirectExecutor.INSTANCE);
+
+        return result;
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import com.dyngr.concurrent.ListenableFuture;
+import com.dyngr.concurrent.SettableFuture;
+import com.dyngr.util.Preconditions;
+
+/**
+ * Batches attempts of many pollings, each polling a single key, into bulk calls of a {@link BatchAttemptMaker}.
+ * <p>
+ * When an attempt of a key is due, the key is queued instead of being polled at once. The queue is flushed by one
+ * bulk call when the batch window has passed since the first key was queued, or as soon as
+ * <code>maxBatchSize</code> distinct keys are queued. The result of each key is then routed back to its own polling,
+ * which decides with its own strategies whether to finish, stop or when to be queued again. So thousands of pollings
+ * cost a few bulk calls per wait interval, at the cost of at most one window of latency per attempt.
+ * <p>
+ * Pollings of the same key queued together share one slot in the bulk call. Waits and bulk calls run on the given
+ * scheduler, and no thread is blocked while a polling waits.
+ *
+ * @param <K> the type of key
+ * @param <V> the type of result
+ * @author dingye
+ */
+public class AttemptBatcher<K, V> {
+    private final BatchAttemptMaker<K, V> maker;
+    private final long window;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private final Object lock = new Object();
+    private final Runnable flush;
+    private final AtomicLong batchCount;
+
+    @GuardedBy("lock")
+    private final Map<K, List<KeyPolling>> queue = new LinkedHashMap<K, List<KeyPolling>>();
+
+    @GuardedBy("lock")
+    private boolean flushScheduled;
+
+    /**
+     * @param maker        the bulk polling body
+     * @param window       how long to wait for more keys before a bulk call
+     * @param timeUnit     unit of the window
+     * @param maxBatchSize max number of keys in a bulk call
+     * @param scheduler    scheduler to wait and make bulk calls on
+     */
+    public AttemptBatcher(BatchAttemptMaker<K, V> maker,
+                          long window,
+                          TimeUnit timeUnit,
+                          int maxBatchSize,
+                          ScheduledExecutorService scheduler) {
+        Preconditions.checkNotNull(maker, "maker should not be null");
+        Preconditions.checkArgument(window >= 0L, "window must be >= 0 but is %d", window);
+        Preconditions.checkNotNull(timeUnit, "timeUnit should not be null");
+        Preconditions.checkArgument(maxBatchSize > 0, "maxBatchSize must be > 0 but is %d", maxBatchSize);
+        Preconditions.checkNotNull(scheduler, "scheduler should not be null");
+        this.maker = maker;
+        this.window = timeUnit.toMillis(window);
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = scheduler;
+        this.batchCount = new AtomicLong();
+        this.flush = new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        };
+    }
+
+    /**
+     * Starts polling a key with given strategies, making attempts by bulk calls shared with other keys.
+     *
+     * @param key          the key to poll
+     * @param stopStrategy stop strategy of this polling
+     * @param waitStrategy wait strategy of this polling
+     * @return future of the result
+     */
+    public ListenableFuture<V> poll(K key, StopStrategy stopStrategy, WaitStrategy waitStrategy) {
+        Preconditions.checkNotNull(key, "key should not be null");
+        KeyPolling polling = new KeyPolling(key, stopStrategy, waitStrategy);
+        polling.loop.begin();
+        enqueue(polling);
+        return polling;
+    }
+
+    /**
+     * Number of bulk calls made so far.
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    private void enqueue(KeyPolling polling) {
+        synchronized (lock) {
+            List<KeyPolling> pollings = queue.get(polling.key);
+            if (pollings == null) {
+                pollings = new ArrayList<KeyPolling>(1);
+                queue.put(polling.key, pollings);
+            }
+            pollings.add(polling);
+
+            if (queue.size() == maxBatchSize) {
+                flushScheduled = true;
+                scheduler.schedule(flush, 0L, TimeUnit.MILLISECONDS);
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                scheduler.schedule(flush, window, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void flush() {
+        Map<K, List<KeyPolling>> batch = new LinkedHashMap<K, List<KeyPolling>>();
+        synchronized (lock) {
+            Iterator<Map.Entry<K, List<KeyPolling>>> it = queue.entrySet().iterator();
+            while (it.hasNext() && batch.size() < maxBatchSize) {
+                Map.Entry<K, List<KeyPolling>> entry = it.next();
+                it.remove();
+                List<KeyPolling> alive = new ArrayList<KeyPolling>(entry.getValue().size());
+                for (KeyPolling polling : entry.getValue()) {
+                    if (!polling.isDone()) {
+                        alive.add(polling);
+                    }
+                }
+                if (!alive.isEmpty()) {
+                    batch.put(entry.getKey(), alive);
+                }
+            }
+
+            // keys left over by a full batch go in the next one at once
+            flushScheduled = !queue.isEmpty();
+            if (flushScheduled) {
+                scheduler.schedule(flush, 0L, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        batchCount.incrementAndGet();
+        Map<K, AttemptResult<V>> results;
+        Throwable failure = null;
+        long batchStart = System.nanoTime();
+        try {
+            results = maker.process(Collections.unmodifiableSet(new LinkedHashSet<K>(batch.keySet())));
+        } catch (Throwable e) {
+            results = null;
+            failure = e;
+        }
+        // every key in a batch waits for the whole batch
+        long latency = System.nanoTime() - batchStart;
+
+        for (Map.Entry<K, List<KeyPolling>> entry : batch.entrySet()) {
+            AttemptResult<V> result;
+            if (failure != null) {
+                result = AttemptResults.continueFor(failure);
+            } else {
+                result = results == null ? null : results.get(entry.getKey());
+                if (result == null) {
+                    result = AttemptResults.justContinue();
+                }
+            }
+            for (KeyPolling polling : entry.getValue()) {
+                polling.onResult(result, latency);
+            }
+        }
+    }
+
+    /**
+     * Future of polling a single key.
+     */
+    private class KeyPolling extends SettableFuture<V> {
+        private final K key;
+        private final PollingLoop<V> loop;
+        private final Runnable requeue;
+
+        KeyPolling(K key, StopStrategy stopStrategy, WaitStrategy waitStrategy) {
+            this.key = key;
+            this.loop = PollingLoop.driven(stopStrategy, waitStrategy);
+            this.requeue = new Runnable() {
+                @Override
+                public void run() {
+                    if (!isDone()) {
+                        enqueue(KeyPolling.this);
+                    }
+                }
+            };
+        }
+
+        void onResult(AttemptResult<V> result, long latency) {
+            try {
+                if (loop.accept(result, latency)) {
+                    set(loop.getResult());
+                } else {
+                    scheduler.schedule(requeue, loop.getWaitTime(), TimeUnit.MILLISECONDS);
+                }
+            } catch (Throwable e) {
+                setException(e);
+            }
+        }
+    }
+}
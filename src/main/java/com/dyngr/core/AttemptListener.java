@@ -0,0 +1,34 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+/**
+ * Listener of results of every attempt, in the order attempts were made.
+ *
+ * @param <V> the type of result
+ * @author dingye
+ */
+public interface AttemptListener<V> {
+    /**
+     * Called with the result of an attempt, before it is passed to strategies. Calls are never made concurrently,
+     * and are made in sequence order even if attempts finished out of order.
+     *
+     * @param sequence      sequence number of the attempt, starting from 0
+     * @param attemptResult result of the attempt
+     */
+    void onAttempt(long sequence, AttemptResult<? extends V> attemptResult);
+}
@@ -16,12 +16,18 @@
 
 package com.dyngr.core;
 
+import java.util.concurrent.TimeUnit;
+
 import javax.annotation.Nullable;
 
+import com.dyngr.util.Preconditions;
+
 /**
  * Result of a single attempt.
  * <p></p>
- * As a rule of thumb, always use {@link AttemptResults} to create {@link AttemptResult}.
+ * As a rule of thumb, always use {@link AttemptResults} to create {@link AttemptResult}, and <code>with*</code>
+ * methods to add details for {@link WaitStrategy}, which can be combined, e.g.
+ * <code>AttemptResults.continueAt(0.4).withWaitHint(5, TimeUnit.SECONDS)</code>.
  *
  * @author dingye
  */
@@ -30,12 +36,31 @@ public class AttemptResult<V> {
     private final V result;
     private final String message;
     private final Throwable cause;
+    private final boolean progress;
+    private final long waitHint;
+    private final double reportedProgress;
 
     AttemptResult(AttemptState state, V result, String message, @Nullable Throwable cause) {
         this.state = state;
         this.result = result;
         this.message = message;
         this.cause = cause;
+        this.progress = false;
+        this.waitHint = -1L;
+        this.reportedProgress = Double.NaN;
+    }
+
+    /**
+     * Copies an attempt result with other details.
+     */
+    AttemptResult(AttemptResult<V> origin, boolean progress, long waitHint, double reportedProgress) {
+        this.state = origin.state;
+        this.result = origin.getResult();
+        this.message = origin.message;
+        this.cause = origin.cause;
+        this.progress = progress;
+        this.waitHint = waitHint;
+        this.reportedProgress = reportedProgress;
     }
 
     public AttemptState getState() {
@@ -53,4 +78,84 @@ public class AttemptResult<V> {
     public Throwable getCause() {
         return cause;
     }
+
+    /**
+     * Tells if the attempt has made progress, e.g. found new data, though polling is not finished.
+     *
+     * @return <code>true</code> if the attempt has made progress
+     */
+    public boolean madeProgress() {
+        return progress;
+    }
+
+    /**
+     * Gets the time to wait before the next attempt, as hinted by the attempt.
+     *
+     * @return the hinted wait time in milliseconds, or <code>-1</code> if there is no hint
+     */
+    public long getWaitHint() {
+        return waitHint;
+    }
+
+    /**
+     * Gets the fraction of work done, as reported by the attempt.
+     *
+     * @return the reported progress in [0, 1], or {@link Double#NaN} if not reported
+     */
+    public double getReportedProgress() {
+        return reportedProgress;
+    }
+
+    /**
+     * Returns a copy of this result telling that the attempt has made progress, e.g. found new data.
+     *
+     * @return an attempt result
+     * @see DetailedAttempt#madeProgress()
+     */
+    public AttemptResult<V> withProgress() {
+        return withDetails(true, waitHint, reportedProgress);
+    }
+
+    /**
+     * Returns a copy of this result hinting how long to wait before the next attempt, e.g. by a
+     * <code>Retry-After</code> header or an ETA returned by the server.
+     *
+     * @param duration time to wait before the next attempt
+     * @param timeUnit unit of the duration
+     * @return an attempt result
+     * @see DetailedAttempt#getWaitHint()
+     */
+    public AttemptResult<V> withWaitHint(long duration, TimeUnit timeUnit) {
+        return withDetails(progress, toWaitHint(duration, timeUnit), reportedProgress);
+    }
+
+    /**
+     * Returns a copy of this result reporting the fraction of work done by a long-running job, e.g. 0.4 for
+     * 40 percent complete.
+     *
+     * @param fraction fraction of work done, in [0, 1]
+     * @return an attempt result
+     * @see DetailedAttempt#getReportedProgress()
+     */
+    public AttemptResult<V> withReportedProgress(double fraction) {
+        return withDetails(progress, waitHint, checkFraction(fraction));
+    }
+
+    static long toWaitHint(long duration, TimeUnit timeUnit) {
+        Preconditions.checkNotNull(timeUnit, "timeUnit should not be null");
+        Preconditions.checkArgument(duration >= 0L, "duration must be >= 0 but is %s", duration);
+        return timeUnit.toMillis(duration);
+    }
+
+    static double checkFraction(double fraction) {
+        Preconditions.checkArgument(fraction >= 0D && fraction <= 1D, "fraction must be in [0, 1] but is %s", fraction);
+        return fraction;
+    }
+
+    /**
+     * Copies this result with other details, overridden by subclasses holding more than the result.
+     */
+    AttemptResult<V> withDetails(boolean progress, long waitHint, double reportedProgress) {
+        return new AttemptResult<V>(this, progress, waitHint, reportedProgress);
+    }
 }
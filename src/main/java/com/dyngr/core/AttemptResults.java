@@ -16,6 +16,8 @@
 
 package com.dyngr.core;
 
+import java.util.concurrent.TimeUnit;
+
 import com.dyngr.exception.UserBreakException;
 
 /**
@@ -24,13 +26,18 @@ import com.dyngr.exception.UserBreakException;
  * @author dingye
  */
 public final class AttemptResults {
+    private static final AttemptResult<Void> JUST_FINISH = new AttemptResult<Void>(AttemptState.FINISH, null, "", null);
+    private static final AttemptResult<Object> JUST_CONTINUE = new AttemptResult<Object>(AttemptState.CONTINUE, null, "", null);
+    private static final AttemptResult<Object> CONTINUE_WITH_PROGRESS = JUST_CONTINUE.withProgress();
+    private static final AttemptResult<Object> DRAIN = new AttemptResult<Object>(AttemptState.DRAIN, null, "", null);
+
     /**
      * Return an {@link AttemptResult} that will end polling without result.
      *
      * @return an attempt result
      */
     public static AttemptResult<Void> justFinish() {
-        return new AttemptResult<Void>(AttemptState.FINISH, null, "", null);
+        return JUST_FINISH;
     }
 
     /**
@@ -72,8 +79,79 @@ public final class AttemptResults {
      * @param <V> return type of poller
      * @return an attempt result
      */
+    @SuppressWarnings("unchecked")
     public static <V> AttemptResult<V> justContinue() {
-        return new AttemptResult<V>(AttemptState.CONTINUE, null, "", null);
+        return (AttemptResult<V>) JUST_CONTINUE;
+    }
+
+    /**
+     * Return an {@link AttemptResult} that makes polling continue, telling {@link WaitStrategy} that this attempt
+     * has made progress, e.g. found new data, while {@link #justContinue()} tells it has not.
+     *
+     * @param <V> return type of poller
+     * @return an attempt result
+     * @see AttemptResult#withProgress()
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> AttemptResult<V> continueWithProgress() {
+        return (AttemptResult<V>) CONTINUE_WITH_PROGRESS;
+    }
+
+    /**
+     * Return an {@link AttemptResult} that makes polling continue, hinting how long to wait before the next attempt,
+     * e.g. by a <code>Retry-After</code> header or an ETA returned by the server. The hint is passed to
+     * {@link WaitStrategy} by {@link DetailedAttempt#getWaitHint()}, which decides whether to honour, clamp or ignore it.
+     *
+     * @param duration time to wait before the next attempt
+     * @param timeUnit unit of the duration
+     * @param <V> return type of poller
+     * @return an attempt result
+     * @see AttemptResult#withWaitHint(long, TimeUnit)
+     * @see WaitStrategies#hintedWait(WaitStrategy, long, long, TimeUnit)
+     */
+    public static <V> AttemptResult<V> continueAfter(long duration, TimeUnit timeUnit) {
+        return AttemptResults.<V>justContinue().withWaitHint(duration, timeUnit);
+    }
+
+    /**
+     * Return an {@link AttemptResult} that makes polling continue, reporting the fraction of work done by a
+     * long-running job, e.g. 0.4 for 40 percent complete. The report is passed to {@link WaitStrategy} by
+     * {@link DetailedAttempt#getReportedProgress()}, which can estimate when the job completes.
+     *
+     * @param fraction fraction of work done, in [0, 1]
+     * @param <V> return type of poller
+     * @return an attempt result
+     * @see AttemptResult#withReportedProgress(double)
+     * @see WaitStrategies#etaWait(long, long, TimeUnit)
+     */
+    public static <V> AttemptResult<V> continueAt(double fraction) {
+        return AttemptResults.<V>justContinue().withReportedProgress(fraction);
+    }
+
+    /**
+     * Return an {@link AttemptResult} that makes polling continue at once, when this attempt got data and more
+     * is likely available. Such an attempt is not counted in attempt numbers nor passed to {@link WaitStrategy},
+     * so polling drains a backlog without waiting, and backs off only after an attempt gets nothing. Time-based
+     * {@link StopStrategy StopStrategies} still apply.
+     *
+     * @param <V> return type of poller
+     * @return an attempt result
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> AttemptResult<V> drain() {
+        return (AttemptResult<V>) DRAIN;
+    }
+
+    /**
+     * Return an {@link AttemptResult} like {@link #drain()}, which also carries the data got by this attempt,
+     * e.g. to be handed to an {@link AttemptListener}.
+     *
+     * @param data data got by this attempt
+     * @param <V> return type of poller
+     * @return an attempt result
+     */
+    public static <V> AttemptResult<V> drainWith(V data) {
+        return new AttemptResult<V>(AttemptState.DRAIN, data, "", null);
     }
 
     public static <V> AttemptResult<V> continueFor(Throwable cause) {
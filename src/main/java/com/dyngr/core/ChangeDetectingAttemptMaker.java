@@ -0,0 +1,119 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dyngr.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dyngr.util.Preconditions;
+
+/**
+ * An {@link AttemptMaker} for continuous polling, which delivers only results that have changed and keeps polling.
+ * <p>
+ * Results with data, returned with {@link AttemptState#FINISH} or {@link AttemptState#DRAIN}, are compared to the
+ * last delivered one by a {@link Fingerprint}. A changed result is handed to the {@link ChangeListener}, and the
+ * attempt goes on with {@link AttemptResults#continueWithProgress()}, or {@link AttemptResults#drain()} if it was
+ * draining. An unchanged result is dropped, and the attempt goes on with {@link AttemptResults#justContinue()},
+ * so that an adaptive {@link WaitStrategy} sees no progress and backs off while the resource is stable. Either way,
+ * the wait hint and reported progress of the result are kept.
+ * Other results, including ones without data, are returned as they are.
+ * <p>
+ * Attempts of one polling are made one at a time, so it must not be shared by pollings running together.
+ *
+ * @param <V> the type of result
+ * @author dingye
+ */
+public class ChangeDetectingAttemptMaker<V> implements AttemptMaker<V> {
+    private final AttemptMaker<V> maker;
+    private final Fingerprint<? super V> fingerprint;
+    private final ChangeListener<? super V> listener;
+    private final AtomicLong changeCount;
+    private final AtomicLong unchangedCount;
+
+    private volatile boolean delivered;
+    private volatile long lastFingerprint;
+
+    /**
+     * @param maker       the polling body
+     * @param fingerprint computes fingerprints of results
+     * @param listener    receives changed results
+     */
+    public ChangeDetectingAttemptMaker(AttemptMaker<V> maker, Fingerprint<? super V> fingerprint, ChangeListener<? super V> listener) {
+        Preconditions.checkNotNull(maker, "maker should not be null");
+        Preconditions.checkNotNull(fingerprint, "fingerprint should not be null");
+        Preconditions.checkNotNull(listener, "listener should not be null");
+        this.maker = maker;
+        this.fingerprint = fingerprint;
+        this.listener = listener;
+        this.changeCount = new AtomicLong();
+        this.unchangedCount = new AtomicLong();
+    }
+
+    @Override
+    public AttemptResult<V> process() throws Exception {
+        AttemptResult<V> result = maker.process();
+        if (result == null || result.getResult() == null) {
+            return result;
+        }
+
+        AttemptState state = result.getState();
+        if (state != AttemptState.FINISH && state != AttemptState.DRAIN) {
+            return result;
+        }
+
+        long current = fingerprint.of(result.getResult());
+        if (delivered && current == lastFingerprint) {
+            unchangedCount.incrementAndGet();
+            return withHintsOf(result, AttemptResults.<V>justContinue());
+        }
+
+        lastFingerprint = current;
+        delivered = true;
+        changeCount.incrementAndGet();
+        listener.onChange(result.getResult());
+        AttemptResult<V> changed = state == AttemptState.DRAIN ? AttemptResults.<V>drain() : AttemptResults.<V>continueWithProgress();
+        return withHintsOf(result, changed);
+    }
+
+    /**
+     * Copies the wait hint and reported progress of the result made by the wrapped maker.
+     */
+    private static <V> AttemptResult<V> withHintsOf(AttemptResult<V> result, AttemptResult<V> returned) {
+        if (result.getWaitHint() >= 0L) {
+            returned = returned.withWaitHint(result.getWaitHint(), TimeUnit.MILLISECONDS);
+        }
+        if (!Double.isNaN(result.getReportedProgress())) {
+            returned = returned.withReportedProgress(result.getReportedProgress());
+        }
+        return returned;
+    }
+
+    /**
+     * Number of changed results delivered.
+     */
+    public long getChangeCount() {
+        return changeCount.get();
+    }
+
+    /**
+     * Number of unchanged results dropped.
+     */
+    public long getUnchangedCount() {
+        return unchangedCount.get();
+    }
+}
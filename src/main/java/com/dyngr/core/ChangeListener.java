@@ -0,0 +1,34 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dyngr.core;
+
+/**
+ * Listener of changed results found by a {@link ChangeDetectingAttemptMaker}.
+ *
+ * @param <V> the type of result
+ * @author dingye
+ */
+public interface ChangeListener<V> {
+    /**
+     * Called with a result whose fingerprint differs from the last one delivered, or the first result.
+     * Calls are made one by one in the order of attempts.
+     *
+     * @param value the changed result
+     */
+    void onChange(V value);
+}
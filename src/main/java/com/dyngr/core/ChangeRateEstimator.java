@@ -0,0 +1,90 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dyngr.core;
+
+import com.dyngr.util.Preconditions;
+
+/**
+ * Estimates how often a source changes, assuming changes come as a Poisson process, from whether it had changed
+ * at every visit.
+ * <p>
+ * A visit only tells if the source has changed at least once since the last visit, so counting changed visits
+ * underestimates frequent changes. The estimator of Cho and Garcia-Molina corrects this:
+ * <code>rate = -ln((n - x + 0.5) / (n + 1)) / I</code>, for <code>n</code> visits, <code>x</code> of them
+ * changed, and the mean interval <code>I</code> between visits. Its denominator is <code>n + 1</code> instead of
+ * <code>n + 0.5</code>, as if half a change had been missed, so that a few unchanged visits don't make a source look
+ * like it never changes. Observations are halved once <code>n</code>
+ * reaches the window, so the estimate follows sources whose rate drifts, in constant memory.
+ *
+ * @author dingye
+ */
+public class ChangeRateEstimator {
+    private final int window;
+
+    private double visits;
+    private double changes;
+    private double totalInterval;
+
+    /**
+     * @param window number of recent visits the estimate is mostly based on
+     */
+    public ChangeRateEstimator(int window) {
+        Preconditions.checkArgument(window >= 2, "window must be >= 2 but is %s", window);
+        this.window = window;
+    }
+
+    /**
+     * Records a visit.
+     *
+     * @param interval time since the last visit, in milliseconds
+     * @param changed  whether the source had changed since the last visit
+     */
+    public synchronized void observe(long interval, boolean changed) {
+        Preconditions.checkArgument(interval >= 0L, "interval must be >= 0 but is %s", interval);
+        if (visits >= window) {
+            visits /= 2D;
+            changes /= 2D;
+            totalInterval /= 2D;
+        }
+        visits++;
+        if (changed) {
+            changes++;
+        }
+        totalInterval += interval;
+    }
+
+    /**
+     * Number of visits the estimate is based on, after halving.
+     */
+    public synchronized double getVisits() {
+        return visits;
+    }
+
+    /**
+     * Gets the estimated change rate.
+     *
+     * @return changes per millisecond, or {@link Double#NaN} if nothing is observed yet
+     */
+    public synchronized double getRate() {
+        if (visits == 0D || totalInterval == 0D) {
+            return Double.NaN;
+        }
+        double meanInterval = totalInterval / visits;
+        return -Math.log((visits - changes + 0.5D) / (visits + 1D)) / meanInterval;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dyngr.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import com.dyngr.util.Preconditions;
+
+/**
+ * A model of how long pollings of recurring kinds of operation take to finish, e.g. "wait for snapshot", which
+ * keeps a {@link QuantileSketch} of completion times per key, and waits by it so that polling starts when the
+ * operation is likely to finish instead of at once.
+ * <p>
+ * Completion times are fed by the attempt makers returned by {@link #track(Object, AttemptMaker)}, or by
+ * {@link #record(Object, long)}. The {@link WaitStrategy} from {@link #waitStrategy(Object, double, double, WaitStrategy)}
+ * first waits until the given quantile of completion times, then walks up the distribution by a fixed step of
+ * quantile per attempt, so attempts are dense where operations usually finish and sparse in the tail.
+ * <p>
+ * Memory per key is bounded by the accuracy and the maximum time, and recording is lock-free.
+ *
+ * @param <K> the type of key, e.g. operation type
+ * @author dingye
+ */
+public class CompletionTimeModel<K> {
+    private final double relativeAccuracy;
+    private final long maxTime;
+    private final ConcurrentMap<K, QuantileSketch> sketches;
+
+    /**
+     * @param relativeAccuracy relative error of completion times, in (0, 1), e.g. 0.02 for 2%
+     * @param maxTime          the maximum completion time to tell apart
+     * @param timeUnit         unit of <code>maxTime</code>
+     */
+    public CompletionTimeModel(double relativeAccuracy, long maxTime, TimeUnit timeUnit) {
+        Preconditions.checkArgument(relativeAccuracy > 0D && relativeAccuracy < 1D,
+                "relativeAccuracy must be in (0, 1) but is %s", relativeAccuracy);
+        Preconditions.checkNotNull(timeUnit, "timeUnit should not be null");
+        Preconditions.checkArgument(timeUnit.toMillis(maxTime) > 0L, "maxTime must be at least 1 millisecond");
+        this.relativeAccuracy = relativeAccuracy;
+        this.maxTime = timeUnit.toMillis(maxTime);
+        this.sketches = new ConcurrentHashMap<K, QuantileSketch>();
+    }
+
+    /**
+     * Records a completion time.
+     *
+     * @param key    kind of the operation
+     * @param millis time from the first attempt to the finishing one, in milliseconds
+     */
+    public void record(K key, long millis) {
+        Preconditions.checkNotNull(key, "key should not be null");
+        sketchOf(key).add(Math.max(millis, 0L));
+    }
+
+    /**
+     * Gets the sketch of completion times of a key.
+     *
+     * @param key kind of the operation
+     * @return the sketch, or <code>null</code> if nothing has been recorded for the key
+     */
+    @Nullable
+    public QuantileSketch getSketch(K key) {
+        return sketches.get(key);
+    }
+
+    /**
+     * Wraps an attempt maker to record the time from its first attempt to the one finishing polling. Attempts of one
+     * polling are made one at a time, so the returned attempt maker must not be shared by pollings running together.
+     * <p>
+     * It can be reused by pollings one after another: timing starts over after an attempt finishing or breaking
+     * polling, or throwing an exception, which stops polling by default. With <code>stopIfException(false)</code>,
+     * the completion time is thus measured from the attempt after the last exception.
+     *
+     * @param key   kind of the operation
+     * @param maker the polling body
+     * @param <V>   the type of result
+     * @return an attempt maker recording its completion time
+     */
+    public <V> AttemptMaker<V> track(final K key, final AttemptMaker<V> maker) {
+        Preconditions.checkNotNull(key, "key should not be null");
+        Preconditions.checkNotNull(maker, "maker should not be null");
+        return new AttemptMaker<V>() {
+            private volatile long startTime = -1L;
+
+            @Override
+            public AttemptResult<V> process() throws Exception {
+                if (startTime < 0L) {
+                    startTime = System.currentTimeMillis();
+                }
+                AttemptResult<V> result;
+                try {
+                    result = maker.process();
+                } catch (Exception e) {
+                    startTime = -1L;
+                    throw e;
+                }
+                if (result != null && result.getState() == AttemptState.FINISH) {
+                    record(key, System.currentTimeMillis() - startTime);
+                    startTime = -1L;
+                } else if (result != null && result.getState() == AttemptState.BREAK) {
+                    startTime = -1L;
+                }
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Returns a wait strategy by the completion times of a key. After an attempt at time <code>t</code> since
+     * the first attempt, it waits until the completion time at quantile
+     * <code>max(firstQuantile, rank(t) + quantileStep)</code>. It falls back to the given strategy while nothing
+     * has been recorded for the key, or once polling has outlasted all recorded completion times.
+     * <p>
+     * The strategy keeps no state of its own, so it can be shared by pollers of the same key.
+     *
+     * @param key              kind of the operation
+     * @param firstQuantile    quantile of completion times to wait until after the first attempt, e.g. 0.5
+     * @param quantileStep     quantile to walk up by every attempt after that, e.g. 0.1
+     * @param fallbackStrategy strategy without enough history
+     * @return a wait strategy by learned completion times
+     */
+    public WaitStrategy waitStrategy(final K key,
+                                     final double firstQuantile,
+                                     final double quantileStep,
+                                     final WaitStrategy fallbackStrategy) {
+        Preconditions.checkNotNull(key, "key should not be null");
+        Preconditions.checkArgument(firstQuantile >= 0D && firstQuantile <= 1D, "firstQuantile must be in [0, 1] but is %s", firstQuantile);
+        Preconditions.checkArgument(quantileStep > 0D && quantileStep <= 1D, "quantileStep must be in (0, 1] but is %s", quantileStep);
+        Preconditions.checkNotNull(fallbackStrategy, "fallbackStrategy should not be null");
+        return new WaitStrategy() {
+            @Override
+            public long computeWaitTime(Attempt failedAttempt) {
+                QuantileSketch sketch = sketches.get(key);
+                if (sketch == null || sketch.getCount() == 0L) {
+                    return fallbackStrategy.computeWaitTime(failedAttempt);
+                }
+
+                long elapsed = failedAttempt.getDelaySinceFirstAttempt();
+                double rank = sketch.rank(elapsed);
+                if (rank >= 1D) {
+                    return fallbackStrategy.computeWaitTime(failedAttempt);
+                }
+
+                double quantile = Math.min(1D, Math.max(firstQuantile, rank + quantileStep));
+                long waitTime = sketch.quantile(quantile) - elapsed;
+                return waitTime > 0L ? waitTime : fallbackStrategy.computeWaitTime(failedAttempt);
+            }
+        };
+    }
+
+    private QuantileSketch sketchOf(K key) {
+        QuantileSketch sketch = sketches.get(key);
+        if (sketch == null) {
+            QuantileSketch created = new QuantileSketch(relativeAccuracy, maxTime);
+            sketch = sketches.putIfAbsent(key, created);
+            if (sketch == null) {
+                sketch = created;
+            }
+        }
+        return sketch;
+    }
+}
@@ -13,26 +13,80 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
+
 package com.dyngr.core;
 
 import javax.annotation.Nullable;
 
+import com.dyngr.util.Preconditions;
+
 /**
- * Default implementation of {@link Attempt}.
+ * Default implementation of {@link Attempt}, and of {@link DetailedAttempt} when built by {@link #newBuilder}.
  *
  * Created by dingye on 17/12/31.
  */
-public class DefaultAttempt implements Attempt {
+public class DefaultAttempt implements DetailedAttempt {
     private final long      attemptNumber;
     private final long      startTime;
     private final long      lastEndTime;
     private final Throwable cause;
+    private final boolean   progress;
+    private final long      waitHint;
+    private final double    reportedProgress;
+    private final long      latency;
+    private final long      averageLatency;
+    private final PollingLoop<?> polling;
 
     public DefaultAttempt(long attemptNumber, long startTime, long lastEndTime, @Nullable Throwable cause) {
+        this(attemptNumber, startTime, lastEndTime, cause, false, -1L, Double.NaN, -1L, -1L, null);
+    }
+
+    /**
+     * Constructs an attempt with all details, used by pollers instead of a {@link Builder} to save an object
+     * per attempt.
+     */
+    DefaultAttempt(long attemptNumber, long startTime, long lastEndTime, @Nullable Throwable cause, boolean progress,
+                   long waitHint, double reportedProgress, long latency, long averageLatency,
+                   @Nullable PollingLoop<?> polling) {
         this.attemptNumber = attemptNumber;
         this.startTime = startTime;
         this.lastEndTime = lastEndTime;
         this.cause = cause;
+        this.progress = progress;
+        this.waitHint = waitHint;
+        this.reportedProgress = reportedProgress;
+        this.latency = latency;
+        this.averageLatency = averageLatency;
+        this.polling = polling;
+    }
+
+    /**
+     * Constructs a new builder of an attempt without details, which can be added by <code>with*</code> methods.
+     *
+     * @param attemptNumber the number, starting from 1, of the attempt
+     * @param startTime     start time of the first attempt, in milliseconds
+     * @param lastEndTime   end time of this attempt, in milliseconds
+     * @return the builder
+     */
+    public static Builder newBuilder(long attemptNumber, long startTime, long lastEndTime) {
+        return new Builder(attemptNumber, startTime, lastEndTime);
+    }
+
+    /**
+     * Views an attempt as a {@link DetailedAttempt}. An attempt implemented outside this library has no details,
+     * i.e. it has made no progress, has neither hint nor reported progress, and its latency is unknown.
+     * It has no polling either, so its {@link PollingLocal} values are new every time.
+     *
+     * @param attempt the attempt
+     * @return the attempt itself if it is a {@link DetailedAttempt}, or a copy of it without details
+     */
+    public static DetailedAttempt detailsOf(Attempt attempt) {
+        if (attempt instanceof DetailedAttempt) {
+            return (DetailedAttempt) attempt;
+        }
+        return newBuilder(attempt.getAttemptNumber(), 0L, attempt.getDelaySinceFirstAttempt())
+                .withException(attempt.hasException() ? attempt.getExceptionCause() : null)
+                .build();
     }
 
     @Override
@@ -54,4 +108,137 @@ public class DefaultAttempt implements Attempt {
     public long getDelaySinceFirstAttempt() {
         return lastEndTime - startTime;
     }
+
+    @Override
+    public boolean madeProgress() {
+        return progress;
+    }
+
+    @Override
+    public boolean hasWaitHint() {
+        return waitHint >= 0L;
+    }
+
+    @Override
+    public long getWaitHint() {
+        Preconditions.checkState(waitHint >= 0L, "Attempt has no wait hint");
+        return waitHint;
+    }
+
+    @Override
+    public boolean hasReportedProgress() {
+        return !Double.isNaN(reportedProgress);
+    }
+
+    @Override
+    public double getReportedProgress() {
+        Preconditions.checkState(!Double.isNaN(reportedProgress), "Attempt has no reported progress");
+        return reportedProgress;
+    }
+
+    @Override
+    public long getLatency() {
+        measureLatency();
+        return latency;
+    }
+
+    @Override
+    public long getAverageLatency() {
+        measureLatency();
+        return averageLatency;
+    }
+
+    private void measureLatency() {
+        if (polling != null) {
+            polling.measureLatency();
+        }
+    }
+
+    @Override
+    public <T> T getPollingLocal(PollingLocal<T> local) {
+        return polling == null ? local.initialValue() : polling.getPollingLocal(local);
+    }
+
+    /**
+     * Builder of {@link DefaultAttempt}.
+     */
+    public static final class Builder {
+        private final long attemptNumber;
+        private final long startTime;
+        private final long lastEndTime;
+        private Throwable cause;
+        private boolean progress;
+        private long waitHint = -1L;
+        private double reportedProgress = Double.NaN;
+        private long latency = -1L;
+        private long averageLatency = -1L;
+        private PollingLoop<?> polling;
+
+        private Builder(long attemptNumber, long startTime, long lastEndTime) {
+            this.attemptNumber = attemptNumber;
+            this.startTime = startTime;
+            this.lastEndTime = lastEndTime;
+        }
+
+        /**
+         * @param cause the exception thrown by the attempt, or <code>null</code> if none
+         * @return <code>this</code>
+         */
+        public Builder withException(@Nullable Throwable cause) {
+            this.cause = cause;
+            return this;
+        }
+
+        /**
+         * @param progress whether the attempt has made progress
+         * @return <code>this</code>
+         */
+        public Builder withProgress(boolean progress) {
+            this.progress = progress;
+            return this;
+        }
+
+        /**
+         * @param waitHint hinted wait time in milliseconds, or a negative value if there is no hint
+         * @return <code>this</code>
+         */
+        public Builder withWaitHint(long waitHint) {
+            this.waitHint = waitHint;
+            return this;
+        }
+
+        /**
+         * @param reportedProgress reported fraction of work done, or {@link Double#NaN} if not reported
+         * @return <code>this</code>
+         */
+        public Builder withReportedProgress(double reportedProgress) {
+            this.reportedProgress = reportedProgress;
+            return this;
+        }
+
+        /**
+         * @param latency        duration of the attempt in milliseconds, or <code>-1</code> if unknown
+         * @param averageLatency moving average of durations of attempts in milliseconds, or <code>-1</code> if unknown
+         * @return <code>this</code>
+         */
+        public Builder withLatency(long latency, long averageLatency) {
+            this.latency = latency;
+            this.averageLatency = averageLatency;
+            return this;
+        }
+
+        /**
+         * @param polling the polling holding values of {@link PollingLocal} variables, shared by its attempts
+         * @return <code>this</code>
+         */
+        Builder withPolling(PollingLoop<?> polling) {
+            this.polling = polling;
+            return this;
+        }
+
+        public DefaultAttempt build() {
+            return new DefaultAttempt(attemptNumber, startTime, lastEndTime, cause, progress, waitHint, reportedProgress,
+                    latency, averageLatency, polling);
+        }
+    }
 }
@@ -18,100 +18,68 @@ package com.dyngr.core;
 
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-import com.dyngr.exception.PollerInterruptedException;
+import com.dyngr.ListenablePoller;
 import com.dyngr.Poller;
-import com.dyngr.exception.PollerStoppedException;
-import com.dyngr.exception.UserBreakException;
+import com.dyngr.concurrent.ListenableFuture;
+import com.dyngr.concurrent.ListenableFutureTask;
 
 /**
  * Default implementation of {@link Poller}.
  *
  * @author dingye
  */
-public class DefaultPoller<V> implements Poller<V> {
+public class DefaultPoller<V> implements ListenablePoller<V> {
     private final AtomicBoolean started;
     private final ExecutorService executor;
     private final StopStrategy stopStrategy;
     private final WaitStrategy waitStrategy;
     private final AttemptMaker<V> maker;
+    private final long deadline;
 
     public DefaultPoller(AttemptMaker<V> maker, StopStrategy stopStrategy, WaitStrategy waitStrategy, ExecutorService executor) {
+        this(maker, stopStrategy, waitStrategy, executor, PollingLoop.NO_DEADLINE);
+    }
+
+    /**
+     * @param deadline time by which polling must end, see {@link PollingLoop#PollingLoop(AttemptMaker, StopStrategy, WaitStrategy, long)}
+     */
+    public DefaultPoller(AttemptMaker<V> maker, StopStrategy stopStrategy, WaitStrategy waitStrategy, ExecutorService executor, long deadline) {
         this.started = new AtomicBoolean(false);
         this.maker = maker;
         this.stopStrategy = stopStrategy;
         this.waitStrategy = waitStrategy;
         this.executor = executor;
+        this.deadline = deadline;
     }
 
     @Override
-    public Future<V> start() {
+    public ListenableFuture<V> start() {
         if (!started.compareAndSet(false, true)) {
             throw new IllegalStateException("Poller already started");
         }
-        return executor.submit(new PollerCallable<V>(maker, stopStrategy, waitStrategy));
+        ListenableFutureTask<V> task = new ListenableFutureTask<V>(new PollerCallable<V>(maker, stopStrategy, waitStrategy, deadline));
+        executor.execute(task);
+        return task;
     }
 
     private static class PollerCallable<V> implements Callable<V> {
         private final AttemptMaker<V> maker;
         private final StopStrategy stopStrategy;
         private final WaitStrategy waitStrategy;
+        private final long deadline;
 
-        public PollerCallable(AttemptMaker<V> maker, StopStrategy stopStrategy, WaitStrategy waitStrategy) {
+        public PollerCallable(AttemptMaker<V> maker, StopStrategy stopStrategy, WaitStrategy waitStrategy, long deadline) {
             this.maker = maker;
             this.stopStrategy = stopStrategy;
             this.waitStrategy = waitStrategy;
+            this.deadline = deadline;
         }
 
         @Override
         public V call() throws Exception {
-            long startTime = System.currentTimeMillis();
-            for (int attemptCount = 1; ;attemptCount++) {
-                AttemptResult<V> result;
-                try {
-                    result = maker.process();
-                } catch (Throwable e) {
-                    result = AttemptResults.continueFor(e);
-                }
-
-                if (result == null) {
-                    throw new IllegalStateException("AttemptMaker has returned a null result");
-                }
-
-                AttemptState state = result.getState();
-
-                if (state == AttemptState.BREAK) {
-                    throw new UserBreakException(result.getMessage(), result.getCause());
-                }
-
-                if (state == AttemptState.FINISH) {
-                    return result.getResult();
-                }
-
-                Attempt failedAttempt = buildAttempt(attemptCount, startTime, System.currentTimeMillis(), result.getCause());
-                if (stopStrategy.shouldStop(failedAttempt)) {
-                    if (failedAttempt.hasException()) {
-                        throw new PollerStoppedException(failedAttempt.getExceptionCause());
-                    } else {
-                        throw new PollerStoppedException();
-                    }
-                }
-
-                long waitTime = waitStrategy.computeWaitTime(failedAttempt);
-
-                try {
-                    Thread.sleep(waitTime);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    throw new PollerInterruptedException(e);
-                }
-            }
-        }
-
-        private Attempt buildAttempt(int attemptNumber, long startTime, long lastEndTime, Throwable cause) {
-            return new DefaultAttempt(attemptNumber, startTime, lastEndTime, cause);
+            return new PollingLoop<V>(maker, stopStrategy, waitStrategy, deadline).run();
         }
     }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+/**
+ * An {@link Attempt} with details reported by the attempt and measured by the poller, given to strategies by
+ * all pollers of this library. Use {@link DefaultAttempt#detailsOf(Attempt)} to read details of any attempt.
+ *
+ * @author dingye
+ */
+public interface DetailedAttempt extends Attempt {
+    /**
+     * Tells if the attempt has made progress, e.g. found new data, as reported by
+     * {@link AttemptResult#withProgress()}.
+     *
+     * @return <code>true</code> if the attempt has made progress, <code>false</code> if it has found nothing
+     *         new or threw an exception
+     */
+    boolean madeProgress();
+
+    /**
+     * Tells if the attempt has hinted how long to wait before the next attempt, by
+     * {@link AttemptResult#withWaitHint(long, java.util.concurrent.TimeUnit)}.
+     *
+     * @return <code>true</code> if there is a hint
+     */
+    boolean hasWaitHint();
+
+    /**
+     * Gets the time to wait before the next attempt, as hinted by the attempt.
+     *
+     * @return the hinted wait time in milliseconds
+     * @throws IllegalStateException if there is no hint, as indicated by {@link #hasWaitHint()}
+     */
+    long getWaitHint();
+
+    /**
+     * Tells if the attempt has reported the progress of a long-running job, by
+     * {@link AttemptResult#withReportedProgress(double)}.
+     *
+     * @return <code>true</code> if progress is reported
+     */
+    boolean hasReportedProgress();
+
+    /**
+     * Gets the fraction of work done, as reported by the attempt.
+     *
+     * @return the reported progress in [0, 1]
+     * @throws IllegalStateException if no progress is reported, as indicated by {@link #hasReportedProgress()}
+     */
+    double getReportedProgress();
+
+    /**
+     * The duration of the last call to {@link AttemptMaker#process()}, in milliseconds. To save reading the clock,
+     * pollers time attempts only with a deadline, or once latency has been asked for in the polling, so it is
+     * unknown until then.
+     *
+     * @return the latency of the last attempt, or <code>-1</code> if unknown
+     */
+    long getLatency();
+
+    /**
+     * The exponentially weighted moving average of durations of calls to {@link AttemptMaker#process()}, including
+     * the last one, in milliseconds, measured as {@link #getLatency()} is.
+     *
+     * @return the average latency of attempts, or <code>-1</code> if unknown
+     */
+    long getAverageLatency();
+
+    /**
+     * Gets the value of given variable in the polling this attempt belongs to, created by
+     * {@link PollingLocal#initialValue()} on first use. Attempts of a polling get the same value, and attempts
+     * not made by a poller of this library get a new one every time.
+     *
+     * @param local the variable
+     * @param <T> the type of value
+     * @return the value of this polling
+     */
+    <T> T getPollingLocal(PollingLocal<T> local);
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dyngr.core;
+
+/**
+ * Computes a cheap fingerprint of a result, e.g. a version or hash of its content, which is the same for results
+ * considered equal by a {@link ChangeDetectingAttemptMaker}.
+ *
+ * @param <V> the type of result
+ * @author dingye
+ * @see Fingerprints
+ */
+public interface Fingerprint<V> {
+    /**
+     * Computes the fingerprint of a result.
+     *
+     * @param value a result, never <code>null</code>
+     * @return the fingerprint
+     */
+    long of(V value);
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dyngr.core;
+
+import java.nio.charset.Charset;
+
+import com.dyngr.util.Preconditions;
+
+/**
+ * Factory class for instances of {@link Fingerprint}.
+ *
+ * @author dingye
+ */
+public final class Fingerprints {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private Fingerprints() {
+    }
+
+    /**
+     * Returns a fingerprint by {@link Object#hashCode()}, which only fits results with a good hash code, as
+     * results with the same hash code are considered unchanged.
+     *
+     * @param <V> the type of result
+     * @return a fingerprint
+     */
+    public static <V> Fingerprint<V> hashCodes() {
+        return new Fingerprint<V>() {
+            @Override
+            public long of(V value) {
+                return value.hashCode();
+            }
+        };
+    }
+
+    /**
+     * Returns a fingerprint hashing the whole content of byte array results into 64 bits.
+     *
+     * @return a fingerprint
+     * @see #hash(byte[])
+     */
+    public static Fingerprint<byte[]> bytes() {
+        return new Fingerprint<byte[]>() {
+            @Override
+            public long of(byte[] value) {
+                return hash(value);
+            }
+        };
+    }
+
+    /**
+     * Returns a fingerprint hashing the UTF-8 bytes of string results into 64 bits.
+     *
+     * @return a fingerprint
+     * @see #hash(byte[])
+     */
+    public static Fingerprint<String> strings() {
+        return new Fingerprint<String>() {
+            @Override
+            public long of(String value) {
+                return hash(value.getBytes(UTF_8));
+            }
+        };
+    }
+
+    /**
+     * Hashes bytes into 64 bits by FNV-1a, which is fast and spreads small changes well, but not cryptographic.
+     *
+     * @param bytes bytes to hash
+     * @return the hash
+     */
+    public static long hash(byte[] bytes) {
+        Preconditions.checkNotNull(bytes, "bytes should not be null");
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+import javax.annotation.Nullable;
+
+import com.dyngr.exception.UserBreakException;
+
+/**
+ * Result of a single attempt made by {@link IntAttemptMaker}, which holds a primitive <code>int</code>
+ * instead of a boxed {@link Integer}.
+ *
+ * @author dingye
+ */
+public final class IntAttemptResult extends AttemptResult<Integer> {
+    private static final IntAttemptResult CONTINUE = new IntAttemptResult(AttemptState.CONTINUE, 0, "", null);
+
+    private final int intResult;
+
+    private IntAttemptResult(AttemptState state, int result, String message, @Nullable Throwable cause) {
+        super(state, null, message, cause);
+        this.intResult = result;
+    }
+
+    /**
+     * Gets the result without boxing.
+     *
+     * @return the result, or <code>0</code> if this attempt is not finished
+     */
+    public int getIntResult() {
+        return intResult;
+    }
+
+    @Override
+    public Integer getResult() {
+        return getState() == AttemptState.FINISH ? Integer.valueOf(intResult) : null;
+    }
+
+    /**
+     * Return an {@link IntAttemptResult} that will end polling with given result.
+     *
+     * @param result result of a successful attempt
+     * @return an attempt result
+     */
+    public static IntAttemptResult finishWith(int result) {
+        return new IntAttemptResult(AttemptState.FINISH, result, "", null);
+    }
+
+    /**
+     * Return an {@link IntAttemptResult} that makes polling continue. No object is created by this method.
+     *
+     * @return an attempt result
+     */
+    public static IntAttemptResult justContinue() {
+        return CONTINUE;
+    }
+
+    /**
+     * Return an {@link IntAttemptResult} that makes polling continue with an exception.
+     *
+     * @param cause the exception that failed this attempt
+     * @return an attempt result
+     */
+    public static IntAttemptResult continueFor(Throwable cause) {
+        return new IntAttemptResult(AttemptState.CONTINUE, 0, "", cause);
+    }
+
+    /**
+     * Return an {@link IntAttemptResult} that will break polling and throw an {@link UserBreakException}.
+     *
+     * @param message message about reason
+     * @return an attempt result
+     */
+    public static IntAttemptResult breakFor(String message) {
+        return new IntAttemptResult(AttemptState.BREAK, 0, message, null);
+    }
+
+    /**
+     * Return an {@link IntAttemptResult} that will break polling and throw an {@link UserBreakException}.
+     *
+     * @param cause reason of user break
+     * @return an attempt result
+     */
+    public static IntAttemptResult breakFor(Throwable cause) {
+        return new IntAttemptResult(AttemptState.BREAK, 0, cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.dyngr.util.Preconditions;
+
+/**
+ * An {@link AttemptMaker} polling a fixed set of keys until all of them are terminal, e.g. waiting for thousands of
+ * tasks to complete.
+ * <p>
+ * Pending keys are tracked by a bitset indexed by key ordinal. Each attempt queries only keys still pending, in
+ * chunks of at most <code>chunkSize</code> keys per call of a {@link BatchAttemptMaker}, and removes keys whose
+ * results are {@link AttemptState#FINISH} (terminal with a result) or {@link AttemptState#BREAK} (terminal with a
+ * failure). So attempts get cheaper as keys complete. Polling finishes with results of all keys in key order once
+ * no key is pending, and failed keys are left <code>null</code> in it.
+ * <p>
+ * If a call fails, the attempt continues with its exception, and keys not queried yet stay pending for the next
+ * attempt. Progress can be read by {@link #getCompletedCount()} from any thread while polling.
+ *
+ * @param <K> the type of key
+ * @param <V> the type of result
+ * @author dingye
+ */
+public class KeySetTracker<K, V> implements AttemptMaker<List<V>> {
+    private final List<K> keys;
+    private final BatchAttemptMaker<K, V> maker;
+    private final int chunkSize;
+    private final BitSet pending;
+    private final AtomicReferenceArray<V> results;
+    private final AtomicReferenceArray<Throwable> failures;
+    private volatile int completedCount;
+
+    /**
+     * @param keys      keys to poll, each key's ordinal is its index
+     * @param maker     queries a chunk of keys
+     * @param chunkSize max number of keys in one query
+     */
+    public KeySetTracker(List<? extends K> keys, BatchAttemptMaker<K, V> maker, int chunkSize) {
+        Preconditions.checkNotNull(maker, "maker should not be null");
+        Preconditions.checkArgument(chunkSize > 0, "chunkSize must be > 0 but is %d", chunkSize);
+        Preconditions.checkArgument(!keys.contains(null), "Cannot have a null key");
+        this.keys = new ArrayList<K>(keys);
+        this.maker = maker;
+        this.chunkSize = chunkSize;
+        this.pending = new BitSet(this.keys.size());
+        this.pending.set(0, this.keys.size());
+        this.results = new AtomicReferenceArray<V>(this.keys.size());
+        this.failures = new AtomicReferenceArray<Throwable>(this.keys.size());
+    }
+
+    @Override
+    public AttemptResult<List<V>> process() throws Exception {
+        int[] ordinals = new int[chunkSize];
+        int ordinal = pending.nextSetBit(0);
+        while (ordinal >= 0) {
+            Set<K> chunk = new LinkedHashSet<K>();
+            int size = 0;
+            while (ordinal >= 0 && size < chunkSize) {
+                chunk.add(keys.get(ordinal));
+                ordinals[size++] = ordinal;
+                ordinal = pending.nextSetBit(ordinal + 1);
+            }
+
+            Map<K, AttemptResult<V>> chunkResults = maker.process(Collections.unmodifiableSet(chunk));
+            if (chunkResults != null) {
+                for (int i = 0; i < size; i++) {
+                    complete(ordinals[i], chunkResults.get(keys.get(ordinals[i])));
+                }
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            return AttemptResults.justContinue();
+        }
+        List<V> list = new ArrayList<V>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            list.add(results.get(i));
+        }
+        return AttemptResults.finishWith(list);
+    }
+
+    private void complete(int ordinal, AttemptResult<V> result) {
+        if (result == null) {
+            return;
+        }
+        if (result.getState() == AttemptState.FINISH) {
+            results.set(ordinal, result.getResult());
+        } else if (result.getState() == AttemptState.BREAK) {
+            failures.set(ordinal, result.getCause() != null ? result.getCause() : new IllegalStateException(result.getMessage()));
+        } else {
+            return;
+        }
+        pending.clear(ordinal);
+        completedCount++;
+    }
+
+    /**
+     * Number of keys.
+     */
+    public int getTotalCount() {
+        return keys.size();
+    }
+
+    /**
+     * Number of keys which are terminal, finished or failed.
+     */
+    public int getCompletedCount() {
+        return completedCount;
+    }
+
+    /**
+     * Number of keys still pending.
+     */
+    public int getPendingCount() {
+        return keys.size() - completedCount;
+    }
+
+    /**
+     * Gets the result of the key at given ordinal, which is available as soon as it finishes.
+     *
+     * @param ordinal index of the key
+     * @return its result, or <code>null</code> if it is not finished (yet)
+     */
+    public V getResult(int ordinal) {
+        return results.get(ordinal);
+    }
+
+    /**
+     * Gets the failure of the key at given ordinal.
+     *
+     * @param ordinal index of the key
+     * @return cause of its failure, or <code>null</code> if it has not failed
+     */
+    public Throwable getFailure(int ordinal) {
+        return failures.get(ordinal);
+    }
+}
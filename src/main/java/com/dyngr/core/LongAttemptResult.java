@@ -0,0 +1,101 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+import javax.annotation.Nullable;
+
+import com.dyngr.exception.UserBreakException;
+
+/**
+ * Result of a single attempt made by {@link LongAttemptMaker}, which holds a primitive <code>long</code>
+ * instead of a boxed {@link Long}.
+ *
+ * @author dingye
+ */
+public final class LongAttemptResult extends AttemptResult<Long> {
+    private static final LongAttemptResult CONTINUE = new LongAttemptResult(AttemptState.CONTINUE, 0, "", null);
+
+    private final long longResult;
+
+    private LongAttemptResult(AttemptState state, long result, String message, @Nullable Throwable cause) {
+        super(state, null, message, cause);
+        this.longResult = result;
+    }
+
+    /**
+     * Gets the result without boxing.
+     *
+     * @return the result, or <code>0</code> if this attempt is not finished
+     */
+    public long getLongResult() {
+        return longResult;
+    }
+
+    @Override
+    public Long getResult() {
+        return getState() == AttemptState.FINISH ? Long.valueOf(longResult) : null;
+    }
+
+    /**
+     * Return an {@link LongAttemptResult} that will end polling with given result.
+     *
+     * @param result result of a successful attempt
+     * @return an attempt result
+     */
+    public static LongAttemptResult finishWith(long result) {
+        return new LongAttemptResult(AttemptState.FINISH, result, "", null);
+    }
+
+    /**
+     * Return an {@link LongAttemptResult} that makes polling continue. No object is created by this method.
+     *
+     * @return an attempt result
+     */
+    public static LongAttemptResult justContinue() {
+        return CONTINUE;
+    }
+
+    /**
+     * Return an {@link LongAttemptResult} that makes polling continue with an exception.
+     *
+     * @param cause the exception that failed this attempt
+     * @return an attempt result
+     */
+    public static LongAttemptResult continueFor(Throwable cause) {
+        return new LongAttemptResult(AttemptState.CONTINUE, 0, "", cause);
+    }
+
+    /**
+     * Return an {@link LongAttemptResult} that will break polling and throw an {@link UserBreakException}.
+     *
+     * @param message message about reason
+     * @return an attempt result
+     */
+    public static LongAttemptResult breakFor(String message) {
+        return new LongAttemptResult(AttemptState.BREAK, 0, message, null);
+    }
+
+    /**
+     * Return an {@link LongAttemptResult} that will break polling and throw an {@link UserBreakException}.
+     *
+     * @param cause reason of user break
+     * @return an attempt result
+     */
+    public static LongAttemptResult breakFor(Throwable cause) {
+        return new LongAttemptResult(AttemptState.BREAK, 0, cause.getMessage(), cause);
+    }
+}
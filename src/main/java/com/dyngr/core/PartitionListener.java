@@ -0,0 +1,34 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+/**
+ * Listener of data got from partitions by a {@link PartitionedPollingFuture}.
+ *
+ * @param <V> the type of result
+ * @author dingye
+ */
+public interface PartitionListener<V> {
+    /**
+     * Called with data, if not <code>null</code>, got by an attempt which returned {@link AttemptState#FINISH} or {@link AttemptState#DRAIN}.
+     * Calls for a partition are made one by one in order, calls for different partitions may be made at the same time.
+     *
+     * @param partition index of the partition
+     * @param data      result of the attempt
+     */
+    void onData(int partition, V data);
+}
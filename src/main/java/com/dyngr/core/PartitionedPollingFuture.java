@@ -0,0 +1,235 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.dyngr.concurrent.SettableFuture;
+import com.dyngr.exception.PollerStoppedException;
+import com.dyngr.util.Preconditions;
+
+/**
+ * Future of continuously polling all partitions of a partitioned source, on at most <code>parallelism</code> threads.
+ * <p>
+ * Every partition polls with its own backoff: an attempt returning {@link AttemptState#DRAIN} is followed by
+ * another one at once, and an attempt returning {@link AttemptState#FINISH} starts a new polling of the partition
+ * at once with its backoff reset, while an empty attempt waits as computed by the {@link WaitStrategy}. So busy
+ * partitions are polled much more often than idle ones. Data got by attempts is handed to a {@link PartitionListener}.
+ * <p>
+ * A partition stops polling when it is stopped by the {@link StopStrategy} or broken by user, other partitions go on.
+ * This future is never completed by itself until all partitions have stopped, when it fails with a
+ * {@link PollerStoppedException} caused by the first failure. Cancel it to stop polling.
+ * <p>
+ * {@link #getAttemptCount(int)} and {@link #getLag(int)} tell how each partition is being polled.
+ *
+ * @param <V> the type of result
+ * @author dingye
+ */
+public class PartitionedPollingFuture<V> extends SettableFuture<Void> {
+    private final AtomicBoolean started;
+    private final int partitionCount;
+    private final PartitionedAttemptMaker<? extends V> maker;
+    private final StopStrategy stopStrategy;
+    private final WaitStrategy waitStrategy;
+    private final PartitionListener<? super V> listener;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    private final AtomicLongArray attemptCounts;
+    private final AtomicLongArray lags;
+    private final AtomicReferenceArray<Throwable> failures;
+    private final AtomicInteger failedCount;
+
+    public PartitionedPollingFuture(int partitionCount,
+                                    PartitionedAttemptMaker<? extends V> maker,
+                                    StopStrategy stopStrategy,
+                                    WaitStrategy waitStrategy,
+                                    int parallelism,
+                                    PartitionListener<? super V> listener) {
+        Preconditions.checkArgument(partitionCount > 0, "partitionCount must be > 0 but is %d", partitionCount);
+        Preconditions.checkArgument(parallelism > 0, "parallelism must be > 0 but is %d", parallelism);
+        Preconditions.checkNotNull(maker, "maker should not be null");
+        Preconditions.checkNotNull(listener, "listener should not be null");
+        this.started = new AtomicBoolean(false);
+        this.partitionCount = partitionCount;
+        this.maker = maker;
+        this.stopStrategy = stopStrategy;
+        this.waitStrategy = waitStrategy;
+        this.listener = listener;
+        this.scheduler = new ScheduledThreadPoolExecutor(parallelism, new PollingThreadFactory("polling-partition"));
+        this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.attemptCounts = new AtomicLongArray(partitionCount);
+        this.lags = new AtomicLongArray(partitionCount);
+        this.failures = new AtomicReferenceArray<Throwable>(partitionCount);
+        this.failedCount = new AtomicInteger();
+    }
+
+    /**
+     * Starts polling all partitions.
+     *
+     * @return <code>this</code>
+     */
+    public PartitionedPollingFuture<V> start() {
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("Polling already started");
+        }
+
+        for (int i = 0; i < partitionCount; i++) {
+            execute(new Partition<V>(this, i), 0L);
+        }
+        return this;
+    }
+
+    /**
+     * Number of partitions.
+     */
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    /**
+     * Number of attempts made on a partition so far, including drained ones.
+     *
+     * @param partition index of the partition
+     */
+    public long getAttemptCount(int partition) {
+        return attemptCounts.get(partition);
+    }
+
+    /**
+     * How long the last attempt of a partition started later than it was due, in milliseconds,
+     * which grows when workers are too few to keep up with all partitions.
+     *
+     * @param partition index of the partition
+     */
+    public long getLag(int partition) {
+        return lags.get(partition);
+    }
+
+    /**
+     * Gets the failure that stopped a partition.
+     *
+     * @param partition index of the partition
+     * @return cause of its failure, or <code>null</code> if it is still polling
+     */
+    public Throwable getFailure(int partition) {
+        return failures.get(partition);
+    }
+
+    /**
+     * Number of partitions still polling.
+     */
+    public int getActiveCount() {
+        return partitionCount - failedCount.get();
+    }
+
+    @Override
+    protected void done() {
+        // drops all waiting partitions, running ones will find this future done
+        scheduler.shutdown();
+        super.done();
+    }
+
+    private void execute(Partition<V> partition, long waitTime) {
+        partition.dueTime = System.currentTimeMillis() + waitTime;
+        try {
+            scheduler.schedule(partition, waitTime, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // rejected only if this future is done already
+        }
+    }
+
+    private void onFailed(int partition, Throwable cause) {
+        failures.set(partition, cause);
+        if (failedCount.incrementAndGet() == partitionCount) {
+            List<Throwable> causes = new ArrayList<Throwable>(partitionCount);
+            for (int i = 0; i < partitionCount; i++) {
+                causes.add(failures.get(i));
+            }
+            PollerStoppedException exception = new PollerStoppedException(
+                    "All " + partitionCount + " partitions stopped", causes.get(0));
+            for (Throwable failure : causes.subList(1, causes.size())) {
+                exception.addSuppressed(failure);
+            }
+            setException(exception);
+        }
+    }
+
+    /**
+     * Polling state of one partition.
+     */
+    private static class Partition<V> implements Runnable, AttemptMaker<V> {
+        private final PartitionedPollingFuture<V> polling;
+        private final int index;
+        private PollingLoop<V> loop;
+        private volatile long dueTime;
+
+        Partition(PartitionedPollingFuture<V> polling, int index) {
+            this.polling = polling;
+            this.index = index;
+            this.loop = newLoop();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public AttemptResult<V> process() throws Exception {
+            return (AttemptResult<V>) polling.maker.process(index);
+        }
+
+        @Override
+        public void run() {
+            if (polling.isDone()) {
+                return;
+            }
+
+            polling.lags.set(index, Math.max(0L, System.currentTimeMillis() - dueTime));
+            polling.attemptCounts.incrementAndGet(index);
+
+            try {
+                loop.begin();
+                long attemptStart = loop.isLatencyMeasured() ? System.nanoTime() : -1L;
+                AttemptResult<V> attemptResult = PollingLoop.attempt(this);
+                long latency = attemptStart < 0L ? -1L : System.nanoTime() - attemptStart;
+                if (attemptResult != null && attemptResult.getResult() != null
+                        && (attemptResult.getState() == AttemptState.FINISH || attemptResult.getState() == AttemptState.DRAIN)) {
+                    polling.listener.onData(index, attemptResult.getResult());
+                }
+
+                if (loop.accept(attemptResult, latency)) {
+                    // start over with backoff reset
+                    loop = newLoop();
+                    polling.execute(this, 0L);
+                } else {
+                    polling.execute(this, loop.getWaitTime());
+                }
+            } catch (Throwable e) {
+                polling.onFailed(index, e);
+            }
+        }
+
+        private PollingLoop<V> newLoop() {
+            return PollingLoop.driven(polling.stopStrategy, polling.waitStrategy);
+        }
+    }
+}
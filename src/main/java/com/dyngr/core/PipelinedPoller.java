@@ -0,0 +1,235 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+import com.dyngr.ListenablePoller;
+import com.dyngr.Poller;
+import com.dyngr.concurrent.ListenableFuture;
+import com.dyngr.concurrent.SettableFuture;
+import com.dyngr.util.Preconditions;
+
+/**
+ * A {@link Poller} running on a {@link ScheduledExecutorService} that keeps up to <code>depth</code> attempts
+ * in flight, to poll a high latency endpoint faster than one attempt per round trip.
+ * <p>
+ * Attempts are numbered by a sequence, and their results are handled strictly in sequence order: each of them is
+ * given to the {@link AttemptListener}, then to strategies as if attempts were made one by one. Results arriving
+ * early are held until all earlier ones have been handled, and those made after the attempt that finished polling
+ * are discarded.
+ * <p>
+ * More attempts are launched only while attempts return {@link AttemptState#DRAIN}: each drained attempt fills the
+ * pipeline up to <code>depth</code> at once. An attempt returning {@link AttemptState#CONTINUE} launches the next one
+ * after the computed wait, and only if no other is in flight, so an idle endpoint is polled by a single attempt at
+ * a time. A depth of 1 is the same as a {@link ScheduledPoller}.
+ * <p>
+ * The attempt maker must be thread-safe if depth is more than 1, and the scheduler needs as many threads to
+ * actually run attempts together.
+ *
+ * @param <V> the type of result
+ * @author dingye
+ */
+public class PipelinedPoller<V> implements ListenablePoller<V> {
+    private final AtomicBoolean started;
+    private final AttemptMaker<V> maker;
+    private final StopStrategy stopStrategy;
+    private final WaitStrategy waitStrategy;
+    private final ScheduledExecutorService scheduler;
+    private final int depth;
+    private final AttemptListener<? super V> listener;
+    private final long deadline;
+
+    public PipelinedPoller(AttemptMaker<V> maker,
+                           StopStrategy stopStrategy,
+                           WaitStrategy waitStrategy,
+                           ScheduledExecutorService scheduler,
+                           int depth,
+                           @Nullable AttemptListener<? super V> listener) {
+        this(maker, stopStrategy, waitStrategy, scheduler, depth, listener, PollingLoop.NO_DEADLINE);
+    }
+
+    /**
+     * @param deadline time by which polling must end, see {@link PollingLoop#PollingLoop(AttemptMaker, StopStrategy, WaitStrategy, long)}
+     */
+    public PipelinedPoller(AttemptMaker<V> maker,
+                           StopStrategy stopStrategy,
+                           WaitStrategy waitStrategy,
+                           ScheduledExecutorService scheduler,
+                           int depth,
+                           @Nullable AttemptListener<? super V> listener,
+                           long deadline) {
+        Preconditions.checkArgument(depth > 0, "depth must be > 0 but is %d", depth);
+        this.started = new AtomicBoolean(false);
+        this.maker = maker;
+        this.stopStrategy = stopStrategy;
+        this.waitStrategy = waitStrategy;
+        this.scheduler = scheduler;
+        this.depth = depth;
+        this.listener = listener;
+        this.deadline = deadline;
+    }
+
+    @Override
+    public ListenableFuture<V> start() {
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("Poller already started");
+        }
+        Pipeline polling = new Pipeline(PollingLoop.<V>driven(stopStrategy, waitStrategy, deadline));
+        polling.begin();
+        return polling;
+    }
+
+    /**
+     * Future of a running polling, keeping attempts in flight and results arrived out of order.
+     */
+    private class Pipeline extends SettableFuture<V> {
+        private final PollingLoop<V> loop;
+        private final Object lock = new Object();
+
+        /**
+         * sequence of the next attempt to launch
+         */
+        @GuardedBy("lock")
+        private long nextSequence;
+
+        /**
+         * sequence of the next result to handle
+         */
+        @GuardedBy("lock")
+        private long handledSequence;
+
+        @GuardedBy("lock")
+        private boolean finished;
+
+        @GuardedBy("lock")
+        private final Map<Long, Future<?>> inFlight = new HashMap<Long, Future<?>>();
+
+        @GuardedBy("lock")
+        private final Map<Long, AttemptResult<V>> arrived = new HashMap<Long, AttemptResult<V>>();
+
+        @GuardedBy("lock")
+        private final Map<Long, Long> latencies = new HashMap<Long, Long>();
+
+        Pipeline(PollingLoop<V> loop) {
+            this.loop = loop;
+        }
+
+        void begin() {
+            synchronized (lock) {
+                loop.begin();
+                launch(0L);
+            }
+        }
+
+        @GuardedBy("lock")
+        private void launch(long waitTime) {
+            final long sequence = nextSequence++;
+            final boolean timed = loop.isLatencyMeasured();
+            Future<?> future = scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (!isDone()) {
+                        long attemptStart = timed ? System.nanoTime() : -1L;
+                        AttemptResult<V> attemptResult = PollingLoop.attempt(maker);
+                        onArrived(sequence, attemptResult, timed ? System.nanoTime() - attemptStart : -1L);
+                    }
+                }
+            }, waitTime, TimeUnit.MILLISECONDS);
+            inFlight.put(sequence, future);
+        }
+
+        private void onArrived(long sequence, AttemptResult<V> attemptResult, long latency) {
+            Throwable failure = null;
+            boolean succeeded = false;
+
+            synchronized (lock) {
+                inFlight.remove(sequence);
+                if (finished) {
+                    // made after the one finished polling
+                    return;
+                }
+                arrived.put(sequence, attemptResult);
+                latencies.put(sequence, latency);
+
+                try {
+                    while (arrived.containsKey(handledSequence)) {
+                        long handling = handledSequence++;
+                        AttemptResult<V> result = arrived.remove(handling);
+                        long resultLatency = latencies.remove(handling);
+                        if (listener != null) {
+                            listener.onAttempt(handling, result);
+                        }
+
+                        if (loop.accept(result, resultLatency)) {
+                            finished = true;
+                            succeeded = true;
+                            break;
+                        }
+
+                        if (result.getState() == AttemptState.DRAIN) {
+                            while (inFlight.size() < depth) {
+                                launch(0L);
+                            }
+                        } else if (inFlight.isEmpty()) {
+                            launch(loop.getWaitTime());
+                        }
+                    }
+                } catch (Throwable e) {
+                    finished = true;
+                    failure = e;
+                }
+
+                if (finished) {
+                    arrived.clear();
+                    latencies.clear();
+                }
+            }
+
+            // complete out of the lock, as listeners of this future may run here
+            if (succeeded) {
+                set(loop.getResult());
+            } else if (failure != null) {
+                setException(failure);
+            }
+        }
+
+        @Override
+        protected void done() {
+            List<Future<?>> futures;
+            synchronized (lock) {
+                finished = true;
+                futures = new ArrayList<Future<?>>(inFlight.values());
+                inFlight.clear();
+            }
+            for (Future<?> future : futures) {
+                future.cancel(false);
+            }
+            super.done();
+        }
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.dyngr.concurrent.SettableFuture;
+import com.dyngr.concurrent.StripedCounter;
+import com.dyngr.exception.PollerException;
+import com.dyngr.exception.PollerInterruptedException;
+import com.dyngr.exception.PollerUnknownException;
+import com.dyngr.exception.StaleValueException;
+import com.dyngr.util.Preconditions;
+
+/**
+ * A value kept fresh by polling in background, to be read on hot paths without paying for polling.
+ * <p>
+ * {@link #get()} is a volatile read of the latest value, and blocks only until the very first value is loaded.
+ * A refresh, which is an ordinary polling with the given strategies, starts when the value has lived 3/4 of
+ * its <code>ttl</code>, so a new value is usually in place before the old one expires. If a refresh fails, another
+ * one is tried after 1/4 of <code>ttl</code>, while the old value is still served until it is
+ * <code>ttl + maxStale</code> old, and a {@link StaleValueException} is thrown after that. A value is expired by
+ * a task on the scheduler, so reads don't even look at the clock.
+ * <p>
+ * Refreshes run on the given scheduler, so no thread is blocked while waiting. Hit count, staleness and refresh
+ * latency are exposed as metrics, hits are counted by a {@link StripedCounter} so that readers don't contend.
+ * Call {@link #close()} to stop refreshing.
+ *
+ * @param <V> the type of value
+ * @author dingye
+ */
+public class PolledValue<V> {
+    private final AttemptMaker<V> maker;
+    private final StopStrategy stopStrategy;
+    private final WaitStrategy waitStrategy;
+    private final long ttl;
+    private final long maxStale;
+    private final ScheduledExecutorService scheduler;
+    private final Refresh refresh;
+
+    private final StripedCounter hitCount;
+    private final AtomicLong missCount;
+    private final AtomicLong refreshCount;
+    private final AtomicLong refreshFailureCount;
+
+    private final AtomicReference<Entry<V>> entry;
+    private volatile SettableFuture<V> firstLoad;
+    private volatile Throwable lastFailure;
+    private volatile long lastRefreshLatency;
+    private volatile boolean closed;
+    private volatile Future<?> pending;
+
+    /**
+     * @param maker        polls the value
+     * @param stopStrategy stop strategy of every refresh
+     * @param waitStrategy wait strategy of every refresh
+     * @param ttl          how long a value is fresh
+     * @param maxStale     how long a value can still be served after expired, while it fails to be refreshed
+     * @param timeUnit     unit of <code>ttl</code> and <code>maxStale</code>
+     * @param scheduler    scheduler to refresh on
+     */
+    public PolledValue(AttemptMaker<V> maker,
+                       StopStrategy stopStrategy,
+                       WaitStrategy waitStrategy,
+                       long ttl,
+                       long maxStale,
+                       TimeUnit timeUnit,
+                       ScheduledExecutorService scheduler) {
+        Preconditions.checkNotNull(maker, "maker should not be null");
+        Preconditions.checkNotNull(timeUnit, "timeUnit should not be null");
+        Preconditions.checkArgument(ttl > 0L, "ttl must be > 0 but is %d", ttl);
+        Preconditions.checkArgument(maxStale >= 0L, "maxStale must be >= 0 but is %d", maxStale);
+        Preconditions.checkNotNull(scheduler, "scheduler should not be null");
+        this.maker = maker;
+        this.stopStrategy = stopStrategy;
+        this.waitStrategy = waitStrategy;
+        this.ttl = timeUnit.toNanos(ttl);
+        this.maxStale = timeUnit.toNanos(maxStale);
+        this.scheduler = scheduler;
+        this.refresh = new Refresh();
+        this.hitCount = new StripedCounter();
+        this.missCount = new AtomicLong();
+        this.refreshCount = new AtomicLong();
+        this.refreshFailureCount = new AtomicLong();
+        this.entry = new AtomicReference<Entry<V>>();
+        this.firstLoad = new SettableFuture<V>();
+    }
+
+    /**
+     * Starts loading the first value.
+     *
+     * @return <code>this</code>
+     */
+    public PolledValue<V> start() {
+        schedule(0L);
+        return this;
+    }
+
+    /**
+     * Gets the latest value, waiting only for the first one to be loaded.
+     *
+     * @return the value
+     * @throws StaleValueException if the value has failed to be refreshed for too long
+     * @throws PollerException if loading the first value has failed
+     * @throws PollerInterruptedException if current thread is interrupted while waiting for the first value
+     */
+    public V get() {
+        Entry<V> current = entry.get();
+        if (current == null) {
+            missCount.incrementAndGet();
+            return load();
+        }
+
+        hitCount.increment();
+        if (current.expired) {
+            throw new StaleValueException("Value is older than ttl + maxStale", lastFailure);
+        }
+        return current.value;
+    }
+
+    /**
+     * Stops refreshing.
+     */
+    public void close() {
+        closed = true;
+        Future<?> future = pending;
+        if (future != null) {
+            future.cancel(false);
+        }
+        firstLoad.cancel(false);
+    }
+
+    /**
+     * Number of reads served by a loaded value.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Number of reads made before the first value is loaded.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Number of successful refreshes, including the first load.
+     */
+    public long getRefreshCount() {
+        return refreshCount.get();
+    }
+
+    /**
+     * Number of failed refreshes.
+     */
+    public long getRefreshFailureCount() {
+        return refreshFailureCount.get();
+    }
+
+    /**
+     * How long the last successful refresh took, in milliseconds.
+     */
+    public long getLastRefreshLatency() {
+        return lastRefreshLatency;
+    }
+
+    /**
+     * Age of the current value in milliseconds, or <code>-1</code> if no value is loaded yet.
+     */
+    public long getStaleness() {
+        Entry<V> current = entry.get();
+        return current == null ? -1L : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - current.loadedAt);
+    }
+
+    private V load() {
+        try {
+            return firstLoad.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PollerInterruptedException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            // loaded while failing
+            Entry<V> current = entry.get();
+            if (current != null) {
+                return current.value;
+            }
+            if (cause instanceof PollerException) {
+                throw (PollerException) cause;
+            }
+            throw new PollerUnknownException(cause);
+        } catch (CancellationException e) {
+            throw new PollerInterruptedException("Polled value is closed", e);
+        }
+    }
+
+    private void schedule(long delayNanos) {
+        if (closed) {
+            return;
+        }
+        try {
+            pending = scheduler.schedule(refresh, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // the scheduler is shut down
+        }
+    }
+
+    private void onRefreshed(V value, long startTime) {
+        long now = System.nanoTime();
+        final Entry<V> loaded = new Entry<V>(value, now, false);
+        entry.set(loaded);
+        lastRefreshLatency = TimeUnit.NANOSECONDS.toMillis(now - startTime);
+        refreshCount.incrementAndGet();
+        firstLoad.set(value);
+        schedule(ttl - ttl / 4);
+        expire(loaded);
+    }
+
+    private void expire(final Entry<V> loaded) {
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    // a newer value may have been loaded
+                    entry.compareAndSet(loaded, new Entry<V>(loaded.value, loaded.loadedAt, true));
+                }
+            }, ttl + maxStale, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // the scheduler is shut down
+        }
+    }
+
+    private void onRefreshFailed(Throwable cause) {
+        lastFailure = cause;
+        refreshFailureCount.incrementAndGet();
+        if (entry.get() == null) {
+            // fails readers waiting for the first value, and readers coming before the next try
+            firstLoad.setException(cause);
+        }
+        schedule(ttl / 4);
+    }
+
+    /**
+     * A loaded value.
+     */
+    private static class Entry<V> {
+        private final V value;
+        private final long loadedAt;
+        private final boolean expired;
+
+        Entry(V value, long loadedAt, boolean expired) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+            this.expired = expired;
+        }
+    }
+
+    /**
+     * A refresh, polling step by step on the scheduler.
+     */
+    private class Refresh implements Runnable {
+        private PollingLoop<V> loop;
+        private long startTime;
+
+        @Override
+        public void run() {
+            if (closed) {
+                return;
+            }
+
+            if (loop == null) {
+                if (entry.get() == null && firstLoad.isDone()) {
+                    // readers coming from now on wait for this try
+                    firstLoad = new SettableFuture<V>();
+                }
+                loop = new PollingLoop<V>(maker, stopStrategy, waitStrategy);
+                startTime = System.nanoTime();
+            }
+
+            try {
+                if (loop.step()) {
+                    V value = loop.getResult();
+                    loop = null;
+                    onRefreshed(value, startTime);
+                } else {
+                    schedule(TimeUnit.MILLISECONDS.toNanos(loop.getWaitTime()));
+                }
+            } catch (Throwable e) {
+                loop = null;
+                onRefreshFailed(e);
+            }
+        }
+    }
+}
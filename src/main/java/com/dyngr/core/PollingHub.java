@@ -0,0 +1,357 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import com.dyngr.util.Preconditions;
+
+/**
+ * A hub sharing continuous polling of resources among subscribers, so a resource watched by many components
+ * is polled by one upstream polling only.
+ * <p>
+ * The upstream polling of a key starts with its first subscriber and stops with its last one. It polls in rounds:
+ * a round is an ordinary polling with the hub's strategies, whose result, or failure, is published to all
+ * subscribers of the key, and the next round starts after <code>period</code>. A new subscriber of a running
+ * upstream gets the latest result at once.
+ * <p>
+ * Every subscriber is notified on the delivery executor through its own mailbox keeping only the latest event,
+ * so a slow subscriber never blocks other subscribers or the upstream, it just skips results it had no time for.
+ * Exceptions thrown by subscribers are ignored.
+ *
+ * @param <K> the type of key
+ * @param <V> the type of result
+ * @author dingye
+ */
+public class PollingHub<K, V> {
+    private final Source<K, V> source;
+    private final StopStrategy stopStrategy;
+    private final WaitStrategy waitStrategy;
+    private final long period;
+    private final ScheduledExecutorService scheduler;
+    private final Executor deliveryExecutor;
+    private final Object lock = new Object();
+
+    @GuardedBy("lock")
+    private final Map<K, Upstream> upstreams = new HashMap<K, Upstream>();
+
+    /**
+     * @param source           creates the attempt maker polling a key
+     * @param stopStrategy     stop strategy of every round
+     * @param waitStrategy     wait strategy of every round
+     * @param period           time between rounds
+     * @param timeUnit         unit of the period
+     * @param scheduler        scheduler to make attempts on
+     * @param deliveryExecutor executor to notify subscribers on
+     */
+    public PollingHub(Source<K, V> source,
+                      StopStrategy stopStrategy,
+                      WaitStrategy waitStrategy,
+                      long period,
+                      TimeUnit timeUnit,
+                      ScheduledExecutorService scheduler,
+                      Executor deliveryExecutor) {
+        Preconditions.checkNotNull(source, "source should not be null");
+        Preconditions.checkArgument(period >= 0L, "period must be >= 0 but is %d", period);
+        Preconditions.checkNotNull(timeUnit, "timeUnit should not be null");
+        Preconditions.checkNotNull(scheduler, "scheduler should not be null");
+        Preconditions.checkNotNull(deliveryExecutor, "deliveryExecutor should not be null");
+        this.source = source;
+        this.stopStrategy = stopStrategy;
+        this.waitStrategy = waitStrategy;
+        this.period = timeUnit.toMillis(period);
+        this.scheduler = scheduler;
+        this.deliveryExecutor = deliveryExecutor;
+    }
+
+    /**
+     * Subscribes to results of a key, starting its upstream polling if it is the first subscriber.
+     *
+     * @param key        the key to watch
+     * @param subscriber notified with every result
+     * @return the subscription, to unsubscribe
+     */
+    public Subscription subscribe(K key, Subscriber<? super V> subscriber) {
+        Preconditions.checkNotNull(key, "key should not be null");
+        Preconditions.checkNotNull(subscriber, "subscriber should not be null");
+
+        Mailbox<V> mailbox = new Mailbox<V>(subscriber, deliveryExecutor);
+        Upstream upstream;
+        boolean first = false;
+        synchronized (lock) {
+            upstream = upstreams.get(key);
+            if (upstream == null) {
+                upstream = new Upstream(key, source.create(key));
+                upstreams.put(key, upstream);
+                first = true;
+            }
+            upstream.mailboxes.add(mailbox);
+        }
+
+        if (first) {
+            upstream.schedule(0L);
+        } else {
+            Event<V> latest = upstream.latest;
+            if (latest != null) {
+                mailbox.offer(latest);
+            }
+        }
+        return new Subscription(upstream, mailbox);
+    }
+
+    /**
+     * Number of keys being polled.
+     */
+    public int getUpstreamCount() {
+        synchronized (lock) {
+            return upstreams.size();
+        }
+    }
+
+    /**
+     * Number of subscribers of a key.
+     *
+     * @param key the key
+     */
+    public int getSubscriberCount(K key) {
+        synchronized (lock) {
+            Upstream upstream = upstreams.get(key);
+            return upstream == null ? 0 : upstream.mailboxes.size();
+        }
+    }
+
+    private void unsubscribe(Upstream upstream, Mailbox<V> mailbox) {
+        mailbox.close();
+        synchronized (lock) {
+            if (!upstream.mailboxes.remove(mailbox) || !upstream.mailboxes.isEmpty()) {
+                return;
+            }
+            upstreams.remove(upstream.key);
+        }
+        upstream.stop();
+    }
+
+    /**
+     * Creates the {@link AttemptMaker} polling a key, once for every upstream polling.
+     *
+     * @param <K> the type of key
+     * @param <V> the type of result
+     */
+    public interface Source<K, V> {
+        AttemptMaker<V> create(K key);
+    }
+
+    /**
+     * A subscriber of results of a key.
+     *
+     * @param <V> the type of result
+     */
+    public interface Subscriber<V> {
+        /**
+         * Called with the result of a round.
+         *
+         * @param value the result
+         */
+        void onValue(V value);
+
+        /**
+         * Called when a round has failed, polling goes on with the next round.
+         *
+         * @param cause cause of the failure
+         */
+        void onError(Throwable cause);
+    }
+
+    /**
+     * A subscription to a key.
+     */
+    public final class Subscription {
+        private final Upstream upstream;
+        private final Mailbox<V> mailbox;
+
+        private Subscription(Upstream upstream, Mailbox<V> mailbox) {
+            this.upstream = upstream;
+            this.mailbox = mailbox;
+        }
+
+        /**
+         * Stops notifying the subscriber, and stops the upstream polling if it is the last subscriber.
+         * Calling it more than once has no effect.
+         */
+        public void unsubscribe() {
+            PollingHub.this.unsubscribe(upstream, mailbox);
+        }
+    }
+
+    /**
+     * The upstream polling of a key.
+     */
+    private class Upstream implements Runnable {
+        private final K key;
+        private final AttemptMaker<V> maker;
+        private final CopyOnWriteArrayList<Mailbox<V>> mailboxes = new CopyOnWriteArrayList<Mailbox<V>>();
+        private volatile boolean stopped;
+        private volatile Future<?> pending;
+        private volatile Event<V> latest;
+        private PollingLoop<V> loop;
+
+        Upstream(K key, AttemptMaker<V> maker) {
+            this.key = key;
+            this.maker = maker;
+            this.loop = newLoop();
+        }
+
+        @Override
+        public void run() {
+            if (stopped) {
+                return;
+            }
+
+            try {
+                loop.begin();
+                long attemptStart = loop.isLatencyMeasured() ? System.nanoTime() : -1L;
+                AttemptResult<V> attemptResult = PollingLoop.attempt(maker);
+                if (loop.accept(attemptResult, attemptStart < 0L ? -1L : System.nanoTime() - attemptStart)) {
+                    publish(new Event<V>(loop.getResult(), null));
+                    loop = newLoop();
+                    schedule(period);
+                } else {
+                    schedule(loop.getWaitTime());
+                }
+            } catch (Throwable e) {
+                publish(new Event<V>(null, e));
+                loop = newLoop();
+                schedule(period);
+            }
+        }
+
+        void schedule(long waitTime) {
+            try {
+                pending = scheduler.schedule(this, waitTime, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // the scheduler is shut down
+                return;
+            }
+            // stopped while scheduling
+            if (stopped) {
+                pending.cancel(false);
+            }
+        }
+
+        void stop() {
+            stopped = true;
+            Future<?> future = pending;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+
+        private void publish(Event<V> event) {
+            latest = event;
+            for (Mailbox<V> mailbox : mailboxes) {
+                mailbox.offer(event);
+            }
+        }
+
+        private PollingLoop<V> newLoop() {
+            return PollingLoop.driven(stopStrategy, waitStrategy);
+        }
+    }
+
+    /**
+     * A result or a failure of a round, shared by all mailboxes.
+     */
+    private static class Event<V> {
+        private final V value;
+        private final Throwable cause;
+
+        Event(V value, Throwable cause) {
+            this.value = value;
+            this.cause = cause;
+        }
+    }
+
+    /**
+     * Delivers events to a subscriber one by one, keeping only the latest one not delivered yet.
+     */
+    private static class Mailbox<V> implements Runnable {
+        private final Subscriber<? super V> subscriber;
+        private final Executor executor;
+        private final AtomicReference<Event<V>> next = new AtomicReference<Event<V>>();
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+        private volatile boolean closed;
+
+        Mailbox(Subscriber<? super V> subscriber, Executor executor) {
+            this.subscriber = subscriber;
+            this.executor = executor;
+        }
+
+        void offer(Event<V> event) {
+            next.set(event);
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        void close() {
+            closed = true;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Event<V> event = next.getAndSet(null);
+                if (event == null) {
+                    draining.set(false);
+                    // offered after the check above, and no one else is draining
+                    if (next.get() != null && draining.compareAndSet(false, true)) {
+                        continue;
+                    }
+                    return;
+                }
+
+                if (closed) {
+                    continue;
+                }
+                try {
+                    if (event.cause == null) {
+                        subscriber.onValue(event.value);
+                    } else {
+                        subscriber.onError(event.cause);
+                    }
+                } catch (RuntimeException e) {
+                    // a broken subscriber doesn't break others
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+/**
+ * A variable of which every polling has its own copy, like a {@link ThreadLocal} for pollings. It lets a
+ * {@link StopStrategy} or {@link WaitStrategy} keep state across attempts of a polling, e.g. recent outcomes,
+ * while the strategy itself is shared by pollers. The copy is got by {@link DetailedAttempt#getPollingLocal}.
+ *
+ * @param <T> the type of value
+ * @author dingye
+ */
+public abstract class PollingLocal<T> {
+    /**
+     * Creates the value of a polling, called once when the value is first got in the polling.
+     *
+     * @return the initial value
+     */
+    protected abstract T initialValue();
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.dyngr.exception.PollerInterruptedException;
+import com.dyngr.exception.PollerStoppedException;
+import com.dyngr.exception.UserBreakException;
+import com.dyngr.util.Preconditions;
+
+/**
+ * State of a single polling run. Every call to {@link #step()} makes one attempt and
+ * decides, by the given {@link StopStrategy} and {@link WaitStrategy}, whether polling
+ * is finished or how long to wait before the next attempt.
+ * <p>
+ * An attempt returning {@link AttemptState#DRAIN} is followed by another one at once. It is neither counted in
+ * attempt numbers nor passed to the {@link WaitStrategy}, but the {@link StopStrategy} still checks it with the
+ * number of the counted attempt it leads to, so that time-based stops apply while data keeps coming. The next counted
+ * attempt is told to have made progress, as the drained attempts found data.
+ * <p>
+ * The duration of attempts is measured with a deadline, or from the attempt after a strategy first asks for it,
+ * and strategies get the last one and its moving average by {@link DetailedAttempt#getLatency()} and
+ * {@link DetailedAttempt#getAverageLatency()}. Strategies keep other state
+ * of a polling in {@link PollingLocal} variables, whose values live in the loop, so that they can be shared.
+ * <p>
+ * With a deadline, every wait is cut short so that the next attempt, taking as long as attempts do on average,
+ * ends by the deadline, and polling stops at once instead of waiting when there is no time left for one more
+ * attempt.
+ * <p>
+ * A loop created by {@link #driven(StopStrategy, WaitStrategy, long)} makes no attempt itself, attempts are made
+ * outside, e.g. in batches or on several threads, and their results are fed by {@link #accept(AttemptResult, long)}.
+ * <p>
+ * A loop is not thread-safe and can only be run once, create a new one for every polling.
+ *
+ * @param <V> the type of result
+ * @author dingye
+ */
+public class PollingLoop<V> {
+    /**
+     * weight of the last latency in the moving average
+     */
+    private static final double LATENCY_WEIGHT = 0.2D;
+
+    /**
+     * deadline of a loop without deadline
+     */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final AttemptMaker<V> maker;
+    private final StopStrategy stopStrategy;
+    private final WaitStrategy waitStrategy;
+    private final long deadline;
+
+    private long startTime;
+    private long attemptCount;
+    private long waitTime;
+    private boolean drained;
+    private boolean latencyMeasured;
+    private long lastLatency = -1L;
+    private double averageLatency = -1D;
+    private AttemptResult<V> finalResult;
+
+    /**
+     * values of {@link PollingLocal} variables, created on first use as most pollings have none
+     */
+    private Map<PollingLocal<?>, Object> pollingLocals;
+
+    public PollingLoop(AttemptMaker<V> maker, StopStrategy stopStrategy, WaitStrategy waitStrategy) {
+        this(maker, stopStrategy, waitStrategy, NO_DEADLINE);
+    }
+
+    /**
+     * @param deadline time by which polling must end, in milliseconds as {@link System#currentTimeMillis()},
+     *                 or {@link #NO_DEADLINE}
+     */
+    public PollingLoop(AttemptMaker<V> maker, StopStrategy stopStrategy, WaitStrategy waitStrategy, long deadline) {
+        this.maker = maker;
+        this.stopStrategy = stopStrategy;
+        this.waitStrategy = waitStrategy;
+        this.deadline = deadline;
+        this.latencyMeasured = deadline != NO_DEADLINE;
+    }
+
+    /**
+     * Creates a loop whose attempts are made outside and fed by {@link #accept(AttemptResult, long)}.
+     */
+    static <V> PollingLoop<V> driven(StopStrategy stopStrategy, WaitStrategy waitStrategy) {
+        return driven(stopStrategy, waitStrategy, NO_DEADLINE);
+    }
+
+    /**
+     * Creates a loop whose attempts are made outside and fed by {@link #accept(AttemptResult, long)}.
+     *
+     * @param deadline time by which polling must end, in milliseconds as {@link System#currentTimeMillis()},
+     *                 or {@link #NO_DEADLINE}
+     */
+    static <V> PollingLoop<V> driven(StopStrategy stopStrategy, WaitStrategy waitStrategy, long deadline) {
+        return new PollingLoop<V>(null, stopStrategy, waitStrategy, deadline);
+    }
+
+    /**
+     * Runs polling on the current thread until it finishes.
+     *
+     * @return the polling result
+     * @throws UserBreakException if polling is broken by user
+     * @throws PollerStoppedException if polling is stopped by {@link StopStrategy}
+     * @throws PollerInterruptedException if current thread is interrupted while waiting
+     * @throws IllegalStateException if the loop is {@link #driven(StopStrategy, WaitStrategy, long) driven}
+     */
+    public V run() {
+        return poll().getResult();
+    }
+
+    /**
+     * Runs polling on the current thread until it finishes.
+     *
+     * @return the attempt result that finished polling
+     * @throws UserBreakException if polling is broken by user
+     * @throws PollerStoppedException if polling is stopped by {@link StopStrategy}
+     * @throws PollerInterruptedException if current thread is interrupted while waiting
+     * @throws IllegalStateException if the loop is {@link #driven(StopStrategy, WaitStrategy, long) driven}
+     */
+    public AttemptResult<V> poll() {
+        while (!step()) {
+            try {
+                if (waitTime > 0) {
+                    Thread.sleep(waitTime);
+                } else if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PollerInterruptedException(e);
+            }
+        }
+        return finalResult;
+    }
+
+    /**
+     * Makes one attempt.
+     *
+     * @return <code>true</code> if polling is finished, <code>false</code> if another attempt
+     *         should be made after {@link #getWaitTime()}
+     * @throws UserBreakException if polling is broken by user
+     * @throws PollerStoppedException if polling is stopped by {@link StopStrategy}
+     * @throws IllegalStateException if the loop is {@link #driven(StopStrategy, WaitStrategy, long) driven}
+     */
+    public boolean step() {
+        Preconditions.checkState(maker != null, "Attempts of a driven loop are made outside");
+        begin();
+        if (!latencyMeasured) {
+            return accept(attempt(maker), -1L);
+        }
+        long attemptStart = System.nanoTime();
+        AttemptResult<V> attemptResult = attempt(maker);
+        return accept(attemptResult, System.nanoTime() - attemptStart);
+    }
+
+    /**
+     * Tells if attempts should be timed, i.e. with a deadline or once latency has been asked for.
+     */
+    boolean isLatencyMeasured() {
+        return latencyMeasured;
+    }
+
+    /**
+     * Makes attempts timed from now on.
+     */
+    void measureLatency() {
+        latencyMeasured = true;
+    }
+
+    /**
+     * Marks the start of the first attempt, if not marked yet.
+     */
+    void begin() {
+        if (startTime == 0) {
+            startTime = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Makes one attempt by given attempt maker, which can be called from any thread.
+     *
+     * @return the attempt result, with the exception if thrown
+     */
+    static <V> AttemptResult<V> attempt(AttemptMaker<V> maker) {
+        try {
+            return maker.process();
+        } catch (Throwable e) {
+            return AttemptResults.continueFor(e);
+        }
+    }
+
+    /**
+     * Applies strategies to the result of an attempt whose duration is unknown.
+     *
+     * @see #accept(AttemptResult, long)
+     */
+    boolean accept(AttemptResult<V> attemptResult) {
+        return accept(attemptResult, -1L);
+    }
+
+    /**
+     * Applies strategies to the result of an attempt, attempts must be accepted in the order they were made.
+     *
+     * @param attemptResult result of the attempt
+     * @param latencyNanos  duration of the attempt in nanoseconds, or a negative value if unknown
+     * @return <code>true</code> if polling is finished, <code>false</code> if another attempt
+     *         should be made after {@link #getWaitTime()}
+     * @throws UserBreakException if polling is broken by user
+     * @throws PollerStoppedException if polling is stopped by {@link StopStrategy}
+     */
+    boolean accept(AttemptResult<V> attemptResult, long latencyNanos) {
+        if (attemptResult == null) {
+            throw new IllegalStateException("AttemptMaker has returned a null result");
+        }
+
+        if (latencyNanos >= 0L) {
+            lastLatency = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+            double latency = latencyNanos / 1e6D;
+            averageLatency = averageLatency < 0D ? latency : averageLatency + LATENCY_WEIGHT * (latency - averageLatency);
+        }
+
+        AttemptState state = attemptResult.getState();
+
+        if (state == AttemptState.BREAK) {
+            throw new UserBreakException(attemptResult.getMessage(), attemptResult.getCause());
+        }
+
+        if (state == AttemptState.FINISH) {
+            finalResult = attemptResult;
+            return true;
+        }
+
+        if (state == AttemptState.DRAIN) {
+            if (deadline != NO_DEADLINE && System.currentTimeMillis() >= deadline) {
+                throw new PollerStoppedException("Deadline is reached");
+            }
+            // numbered as the counted attempt it leads to, as numbers start from 1
+            Attempt drainedAttempt = newAttempt(attemptCount + 1, null, true, -1L, Double.NaN);
+            if (stopStrategy.shouldStop(drainedAttempt)) {
+                throw new PollerStoppedException();
+            }
+            waitTime = 0L;
+            drained = true;
+            return false;
+        }
+
+        attemptCount++;
+        boolean progress = drained || attemptResult.madeProgress();
+        drained = false;
+
+        DetailedAttempt failedAttempt = newAttempt(attemptCount, attemptResult.getCause(), progress, attemptResult.getWaitHint(),
+                attemptResult.getReportedProgress());
+        if (stopStrategy.shouldStop(failedAttempt)) {
+            if (failedAttempt.hasException()) {
+                throw new PollerStoppedException(failedAttempt.getExceptionCause());
+            } else {
+                throw new PollerStoppedException();
+            }
+        }
+
+        waitTime = waitStrategy.computeWaitTime(failedAttempt);
+        if (deadline != NO_DEADLINE) {
+            waitTime = clampToDeadline(failedAttempt);
+        }
+        return false;
+    }
+
+    private DefaultAttempt newAttempt(long attemptNumber, Throwable cause, boolean progress, long waitHint,
+                                      double reportedProgress) {
+        return new DefaultAttempt(attemptNumber, startTime, System.currentTimeMillis(), cause, progress, waitHint,
+                reportedProgress, lastLatency, averageLatency < 0D ? -1L : Math.round(averageLatency), this);
+    }
+
+    /**
+     * Cuts the wait time short so that the next attempt ends by the deadline.
+     *
+     * @throws PollerStoppedException if the next attempt can't end by the deadline, so waiting for it is useless
+     */
+    private long clampToDeadline(DetailedAttempt failedAttempt) {
+        long expectedLatency = Math.max(failedAttempt.getAverageLatency(), 0L);
+        long timeLeft = deadline - System.currentTimeMillis() - expectedLatency;
+        if (timeLeft < 0L) {
+            if (failedAttempt.hasException()) {
+                throw new PollerStoppedException("Deadline is reached", failedAttempt.getExceptionCause());
+            } else {
+                throw new PollerStoppedException("Deadline is reached");
+            }
+        }
+        return Math.min(waitTime, timeLeft);
+    }
+
+    /**
+     * Gets the value of given variable in this polling, see {@link DetailedAttempt#getPollingLocal(PollingLocal)}.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T getPollingLocal(PollingLocal<T> local) {
+        if (pollingLocals == null) {
+            pollingLocals = new IdentityHashMap<PollingLocal<?>, Object>(4);
+        }
+        T value = (T) pollingLocals.get(local);
+        if (value == null) {
+            value = local.initialValue();
+            pollingLocals.put(local, value);
+        }
+        return value;
+    }
+
+    /**
+     * Gets the time to wait before next attempt, computed by the last {@link #step()}.
+     *
+     * @return time to wait in milliseconds
+     */
+    public long getWaitTime() {
+        return waitTime;
+    }
+
+    /**
+     * Gets the result of a finished polling.
+     *
+     * @return the polling result, or <code>null</code> if polling is not finished yet
+     */
+    public V getResult() {
+        return finalResult == null ? null : finalResult.getResult();
+    }
+}
@@ -0,0 +1,382 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.dyngr.PollingTemplate;
+import com.dyngr.concurrent.DirectExecutor;
+import com.dyngr.concurrent.FutureCallback;
+import com.dyngr.concurrent.ListenableFuture;
+import com.dyngr.concurrent.SettableFuture;
+import com.dyngr.exception.PollerStoppedException;
+import com.dyngr.util.Preconditions;
+
+/**
+ * A graph of pollings depending on each other. Each node polls with its own strategies, and starts only when
+ * all nodes it depends on have finished, with their results as input.
+ * <p>
+ * All nodes are scheduled on a shared scheduler and no thread is blocked waiting for another node. When a node
+ * fails, all nodes depending on it, directly or not, are skipped, while others go on. The pipeline finishes when
+ * every node has finished or been skipped, and fails with a {@link PollerStoppedException} if any node has failed.
+ *
+ * <pre>{@code
+ * PollingPipeline.Builder builder = PollingPipeline.newBuilder();
+ * Node<String> a = builder.node("A", template, createResourceA);
+ * Node<String> b = builder.node("B", template, new NodeMaker<String>() {
+ *     public AttemptMaker<String> create(Results inputs) {
+ *         return pollResourceB(inputs.get(a));
+ *     }
+ * }, a);
+ * Results results = builder.build().start(scheduler).get();
+ * }</pre>
+ *
+ * @author dingye
+ */
+public final class PollingPipeline {
+    private static final int PENDING = 0;
+    private static final int RUNNING = 1;
+    private static final int FINISHED = 2;
+    private static final int FAILED = 3;
+    private static final int SKIPPED = 4;
+
+    private final Builder owner;
+    private final List<Node<?>> nodes;
+
+    private PollingPipeline(Builder owner, List<Node<?>> nodes) {
+        this.owner = owner;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Constructs a new builder.
+     *
+     * @return the new builder
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Starts the pipeline.
+     *
+     * @param scheduler the scheduler all nodes are polled on
+     * @return future of results of all nodes
+     */
+    public ListenableFuture<Results> start(ScheduledExecutorService scheduler) {
+        Preconditions.checkNotNull(scheduler, "scheduler should not be null");
+        Run run = new Run(scheduler);
+        run.start();
+        return run;
+    }
+
+    /**
+     * Creates the {@link AttemptMaker} of a node once all nodes it depends on have finished.
+     *
+     * @param <V> the type of result
+     */
+    public interface NodeMaker<V> {
+        /**
+         * Creates the attempt maker of this node.
+         *
+         * @param inputs results of nodes this node depends on
+         * @return an attempt maker
+         * @throws Exception any exception will fail this node
+         */
+        AttemptMaker<V> create(Results inputs) throws Exception;
+    }
+
+    /**
+     * A node of a pipeline, used to declare dependencies and to get its result.
+     *
+     * @param <V> the type of result
+     */
+    public static final class Node<V> {
+        private final Builder owner;
+        private final int index;
+        private final String name;
+        private final PollingTemplate template;
+        private final NodeMaker<V> maker;
+        private final List<Node<?>> dependencies;
+        private final List<Node<?>> dependents;
+
+        private Node(Builder owner, int index, String name, PollingTemplate template, NodeMaker<V> maker, List<Node<?>> dependencies) {
+            this.owner = owner;
+            this.index = index;
+            this.name = name;
+            this.template = template;
+            this.maker = maker;
+            this.dependencies = dependencies;
+            this.dependents = new ArrayList<Node<?>>();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return "Node(" + name + ")";
+        }
+    }
+
+    /**
+     * Results of nodes in a pipeline.
+     */
+    public final class Results {
+        private final AtomicReferenceArray<Object> results;
+        private final AtomicIntegerArray states;
+
+        private Results(AtomicReferenceArray<Object> results, AtomicIntegerArray states) {
+            this.results = results;
+            this.states = states;
+        }
+
+        /**
+         * Gets the result of a node.
+         *
+         * @param node a node of this pipeline
+         * @param <V> the type of result
+         * @return the result
+         * @throws IllegalStateException if the node has not finished
+         */
+        @SuppressWarnings("unchecked")
+        public <V> V get(Node<V> node) {
+            Preconditions.checkArgument(node.owner == owner, "%s is not a node of this pipeline", node);
+            Preconditions.checkState(states.get(node.index) == FINISHED, "%s has not finished", node);
+            return (V) results.get(node.index);
+        }
+
+        /**
+         * Tells if a node has finished successfully.
+         *
+         * @param node a node of this pipeline
+         * @return <code>true</code> if finished
+         */
+        public boolean isFinished(Node<?> node) {
+            Preconditions.checkArgument(node.owner == owner, "%s is not a node of this pipeline", node);
+            return states.get(node.index) == FINISHED;
+        }
+    }
+
+    /**
+     * A builder to build a {@link PollingPipeline}. A node can only depend on nodes added before it,
+     * so a pipeline never has a cycle.
+     */
+    public static final class Builder {
+        private final List<Node<?>> nodes = new ArrayList<Node<?>>();
+        private boolean built;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a node whose attempt maker needs results of the nodes it depends on.
+         *
+         * @param name         name of the node
+         * @param template     strategies of the node
+         * @param maker        creates attempt maker of the node
+         * @param dependencies nodes to finish before this node starts
+         * @param <V> the type of result
+         * @return the node added
+         */
+        public <V> Node<V> node(String name, PollingTemplate template, NodeMaker<V> maker, Node<?>... dependencies) {
+            Preconditions.checkState(!built, "Pipeline has already been built");
+            Preconditions.checkNotNull(name, "name should not be null");
+            Preconditions.checkNotNull(template, "template should not be null");
+            Preconditions.checkNotNull(maker, "maker should not be null");
+            for (Node<?> dependency : dependencies) {
+                Preconditions.checkNotNull(dependency, "dependency should not be null");
+                Preconditions.checkArgument(dependency.owner == this, "%s is not a node of this pipeline", dependency);
+            }
+
+            Node<V> node = new Node<V>(this, nodes.size(), name, template, maker,
+                    Collections.unmodifiableList(new ArrayList<Node<?>>(Arrays.asList(dependencies))));
+            for (Node<?> dependency : dependencies) {
+                dependency.dependents.add(node);
+            }
+            nodes.add(node);
+            return node;
+        }
+
+        /**
+         * Adds a node whose attempt maker doesn't need results of the nodes it depends on.
+         *
+         * @param name         name of the node
+         * @param template     strategies of the node
+         * @param attemptMaker the attempt maker of the node
+         * @param dependencies nodes to finish before this node starts
+         * @param <V> the type of result
+         * @return the node added
+         */
+        public <V> Node<V> node(String name, PollingTemplate template, final AttemptMaker<V> attemptMaker, Node<?>... dependencies) {
+            Preconditions.checkNotNull(attemptMaker, "attemptMaker should not be null");
+            return node(name, template, new NodeMaker<V>() {
+                @Override
+                public AttemptMaker<V> create(Results inputs) {
+                    return attemptMaker;
+                }
+            }, dependencies);
+        }
+
+        /**
+         * Finally build the pipeline, no node can be added after.
+         *
+         * @return the built pipeline
+         */
+        public PollingPipeline build() {
+            Preconditions.checkState(!nodes.isEmpty(), "Must have at least one node");
+            built = true;
+            return new PollingPipeline(this, Collections.unmodifiableList(nodes));
+        }
+    }
+
+    /**
+     * A single run of the pipeline.
+     */
+    private final class Run extends SettableFuture<Results> {
+        private final ScheduledExecutorService scheduler;
+        private final AtomicIntegerArray states;
+        private final AtomicIntegerArray pendingDependencies;
+        private final AtomicReferenceArray<Object> results;
+        private final AtomicReferenceArray<ListenableFuture<?>> futures;
+        private final AtomicInteger settledCount;
+        private final Queue<Throwable> failures;
+        private final Results view;
+
+        Run(ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            this.states = new AtomicIntegerArray(nodes.size());
+            this.pendingDependencies = new AtomicIntegerArray(nodes.size());
+            this.results = new AtomicReferenceArray<Object>(nodes.size());
+            this.futures = new AtomicReferenceArray<ListenableFuture<?>>(nodes.size());
+            this.settledCount = new AtomicInteger();
+            this.failures = new ConcurrentLinkedQueue<Throwable>();
+            this.view = new Results(results, states);
+            for (Node<?> node : nodes) {
+                pendingDependencies.set(node.index, node.dependencies.size());
+            }
+        }
+
+        void start() {
+            for (Node<?> node : nodes) {
+                if (node.dependencies.isEmpty()) {
+                    launch(node);
+                }
+            }
+        }
+
+        private <V> void launch(final Node<V> node) {
+            if (isDone() || !states.compareAndSet(node.index, PENDING, RUNNING)) {
+                return;
+            }
+
+            final ListenableFuture<V> future;
+            try {
+                future = node.template.schedule(node.maker.create(view), scheduler);
+            } catch (Throwable e) {
+                onFailed(node, e);
+                return;
+            }
+
+            futures.set(node.index, future);
+            if (isDone()) {
+                future.cancel(true);
+                return;
+            }
+
+            FutureCallback.addCallback(future, new FutureCallback<V>() {
+                @Override
+                public void onSuccess(V result) {
+                    onFinished(node, result);
+                }
+
+                @Override
+                public void onFailure(Throwable cause) {
+                    onFailed(node, cause);
+                }
+            }, DirectExecutor.INSTANCE);
+        }
+
+        private void onFinished(Node<?> node, Object result) {
+            results.set(node.index, result);
+            states.set(node.index, FINISHED);
+            settle();
+            for (Node<?> dependent : node.dependents) {
+                if (pendingDependencies.decrementAndGet(dependent.index) == 0) {
+                    launch(dependent);
+                }
+            }
+        }
+
+        private void onFailed(Node<?> node, Throwable cause) {
+            failures.add(cause);
+            states.set(node.index, FAILED);
+            settle();
+            skipDependents(node);
+        }
+
+        private void skipDependents(Node<?> node) {
+            for (Node<?> dependent : node.dependents) {
+                if (states.compareAndSet(dependent.index, PENDING, SKIPPED)) {
+                    settle();
+                    skipDependents(dependent);
+                }
+            }
+        }
+
+        private void settle() {
+            if (settledCount.incrementAndGet() < nodes.size()) {
+                return;
+            }
+
+            if (failures.isEmpty()) {
+                set(view);
+            } else {
+                PollerStoppedException exception = new PollerStoppedException(
+                        failures.size() + " node(s) of pipeline failed", failures.peek());
+                for (Throwable failure : failures) {
+                    if (failure != exception.getCause()) {
+                        exception.addSuppressed(failure);
+                    }
+                }
+                setException(exception);
+            }
+        }
+
+        @Override
+        protected void done() {
+            // cancel running nodes once cancelled by user
+            for (int i = 0; i < futures.length(); i++) {
+                ListenableFuture<?> future = futures.get(i);
+                if (future != null) {
+                    future.cancel(true);
+                }
+            }
+            super.done();
+        }
+    }
+}
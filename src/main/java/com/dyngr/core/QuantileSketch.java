@@ -0,0 +1,140 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dyngr.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.dyngr.util.Preconditions;
+
+/**
+ * A streaming sketch of non-negative values, e.g. durations in milliseconds, answering quantiles with a bounded
+ * relative error.
+ * <p>
+ * Values are counted in buckets growing geometrically by <code>(1 + accuracy) / (1 - accuracy)</code>, so every
+ * value is known within the relative accuracy, and the number of buckets, so the memory, is fixed by the accuracy
+ * and the maximum value. Values above the maximum are counted as the maximum. Adding a value is lock-free, while
+ * queries scan all buckets and may miss values being added at the same time.
+ *
+ * @author dingye
+ */
+public class QuantileSketch {
+    private final double gamma;
+    private final double logGamma;
+    private final AtomicLongArray counts;
+    private final AtomicLong count;
+
+    /**
+     * @param relativeAccuracy relative error of quantiles, in (0, 1), e.g. 0.02 for 2%
+     * @param maxValue         the maximum value to tell apart
+     */
+    public QuantileSketch(double relativeAccuracy, long maxValue) {
+        Preconditions.checkArgument(relativeAccuracy > 0D && relativeAccuracy < 1D,
+                "relativeAccuracy must be in (0, 1) but is %s", relativeAccuracy);
+        Preconditions.checkArgument(maxValue > 0L, "maxValue must be > 0 but is %s", maxValue);
+        this.gamma = (1D + relativeAccuracy) / (1D - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.counts = new AtomicLongArray(index(maxValue) + 1);
+        this.count = new AtomicLong();
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value a value &gt;= 0
+     */
+    public void add(long value) {
+        Preconditions.checkArgument(value >= 0L, "value must be >= 0 but is %s", value);
+        counts.incrementAndGet(Math.min(index(value), counts.length() - 1));
+        count.incrementAndGet();
+    }
+
+    /**
+     * Number of values added.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Gets the value at a quantile.
+     *
+     * @param quantile the quantile in [0, 1], e.g. 0.5 for the median
+     * @return the value at the quantile, or <code>-1</code> if no value is added
+     */
+    public long quantile(double quantile) {
+        Preconditions.checkArgument(quantile >= 0D && quantile <= 1D, "quantile must be in [0, 1] but is %s", quantile);
+        long total = 0L;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        if (total == 0L) {
+            return -1L;
+        }
+
+        long rank = Math.max(1L, (long) Math.ceil(quantile * total));
+        long seen = 0L;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return value(i);
+            }
+        }
+        return value(counts.length() - 1);
+    }
+
+    /**
+     * Gets the fraction of values not greater than a value, within the accuracy.
+     *
+     * @param value a value
+     * @return the fraction in [0, 1], or <code>0</code> if no value is added
+     */
+    public double rank(long value) {
+        int index = value < 0L ? -1 : Math.min(index(value), counts.length() - 1);
+        long total = 0L;
+        long below = 0L;
+        for (int i = 0; i < counts.length(); i++) {
+            long bucketCount = counts.get(i);
+            total += bucketCount;
+            if (i <= index) {
+                below += bucketCount;
+            }
+        }
+        return total == 0L ? 0D : (double) below / total;
+    }
+
+    /**
+     * Index of the bucket <code>(gamma^(i-1), gamma^i]</code> of a value, all values up to 1 fall in the first one.
+     */
+    private int index(long value) {
+        if (value <= 1L) {
+            return 0;
+        }
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    /**
+     * The value representing a bucket, which is within the relative accuracy of all values in it.
+     */
+    private long value(int index) {
+        if (index == 0) {
+            return 1L;
+        }
+        return Math.round(2D * Math.pow(gamma, index) / (gamma + 1D));
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import com.dyngr.ListenablePoller;
+import com.dyngr.Poller;
+import com.dyngr.concurrent.DirectExecutor;
+import com.dyngr.concurrent.FutureCallback;
+import com.dyngr.concurrent.ListenableFuture;
+import com.dyngr.concurrent.SettableFuture;
+import com.dyngr.exception.PollerStoppedException;
+import com.dyngr.util.Preconditions;
+
+/**
+ * A {@link Poller} that runs a group of pollers together, and finishes as soon as a quorum of them have finished,
+ * with their results in the order they finished. Remaining pollers are cancelled at once, including those waiting
+ * for next attempt, and a poller already finished is never polled again.
+ * <p>
+ * Every member is an ordinary poller, so each of them can have its own {@link WaitStrategy} and {@link StopStrategy}.
+ * <p>
+ * It fails as soon as so many pollers have failed that the quorum can never be reached, with a
+ * {@link PollerStoppedException} caused by the first failure, and other failures added as suppressed exceptions.
+ * <p>
+ * Pollers are started one by one on the calling thread, so to let them run together they should be
+ * built with a scheduler (see {@link com.dyngr.PollerBuilder#withScheduler}) or an executor service.
+ *
+ * @param <V> the type of result
+ * @author dingye
+ */
+public class QuorumPoller<V> implements ListenablePoller<List<V>> {
+    private final AtomicBoolean started;
+    private final int quorum;
+    private final List<ListenablePoller<? extends V>> pollers;
+
+    public QuorumPoller(int quorum, List<? extends ListenablePoller<? extends V>> pollers) {
+        Preconditions.checkArgument(!pollers.contains(null), "Cannot have a null poller");
+        Preconditions.checkArgument(quorum > 0 && quorum <= pollers.size(),
+                "quorum must be in [1, %s] but is %s", pollers.size(), quorum);
+        this.started = new AtomicBoolean(false);
+        this.quorum = quorum;
+        this.pollers = new ArrayList<ListenablePoller<? extends V>>(pollers);
+    }
+
+    @Override
+    public ListenableFuture<List<V>> start() {
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("Poller already started");
+        }
+
+        final QuorumFuture result = new QuorumFuture();
+        final List<ListenableFuture<? extends V>> futures = new CopyOnWriteArrayList<ListenableFuture<? extends V>>();
+
+        // cancel all others once done, or cancelled by user
+        result.addListener(new Runnable() {
+            @Override
+            public void run() {
+                for (ListenableFuture<? extends V> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }, DirectExecutor.INSTANCE);
+
+        for (ListenablePoller<? extends V> poller : pollers) {
+            if (result.isDone()) {
+                break;
+            }
+
+            final ListenableFuture<? extends V> future = poller.start();
+            futures.add(future);
+            FutureCallback.addCallback(future, new FutureCallback<V>() {
+                @Override
+                public void onSuccess(V value) {
+                    result.onFinished(value);
+                }
+
+                @Override
+                public void onFailure(Throwable cause) {
+                    result.onFailed(cause);
+                }
+            }, DirectExecutor.INSTANCE);
+
+            // done before it is added
+            if (result.isDone()) {
+                future.cancel(true);
+            }
+        }
+
+        return result;
+    }
+
+    private class QuorumFuture extends SettableFuture<List<V>> {
+        @GuardedBy("results")
+        private final List<V> results = new ArrayList<V>();
+        private final Queue<Throwable> failures = new ConcurrentLinkedQueue<Throwable>();
+        private final AtomicInteger failedCount = new AtomicInteger();
+
+        void onFinished(V result) {
+            synchronized (results) {
+                if (results.size() < quorum) {
+                    results.add(result);
+                    if (results.size() == quorum) {
+                        set(new ArrayList<V>(results));
+                    }
+                }
+            }
+        }
+
+        void onFailed(Throwable cause) {
+            failures.add(cause);
+            int failed = failedCount.incrementAndGet();
+            if (failed > pollers.size() - quorum) {
+                setException(unreachable(failed));
+            }
+        }
+
+        private PollerStoppedException unreachable(int failed) {
+            PollerStoppedException exception = new PollerStoppedException(
+                    failed + " of " + pollers.size() + " pollers stopped, quorum of " + quorum + " is unreachable",
+                    failures.peek());
+            for (Throwable failure : failures) {
+                if (failure != exception.getCause()) {
+                    exception.addSuppressed(failure);
+                }
+            }
+            return exception;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dyngr.core;
+
+import com.dyngr.util.Preconditions;
+
+/**
+ * Revisit policy keeping copies of many changing sources as fresh as possible under a budget of visits, after the
+ * crawler revisit policy of Cho and Garcia-Molina.
+ * <p>
+ * A source changing at Poisson rate <code>r</code> and visited at frequency <code>f</code> is fresh for an
+ * expected fraction <code>(f / r) * (1 - e^(-r / f))</code> of time. {@link #allocate(double[], double, double, double)}
+ * splits the budget so that the marginal freshness gained by one more visit is the same for all sources, which
+ * maximizes their average freshness. It gives the most visits to sources changing at a moderate rate, fewer to
+ * stable ones, and also fewer to ones changing so often that their copy is stale soon after any visit.
+ *
+ * @author dingye
+ */
+public final class RevisitPolicy {
+    private static final int ITERATIONS = 40;
+    private static final double MAX_RATIO = 64D;
+    private static final double PRECISION = 1e-9D;
+
+    private RevisitPolicy() {
+    }
+
+    /**
+     * Expected fraction of time a copy is fresh.
+     *
+     * @param rate      change rate of the source
+     * @param frequency visit frequency, in the same unit of time
+     * @return freshness in [0, 1]
+     */
+    public static double freshness(double rate, double frequency) {
+        if (rate <= 0D) {
+            return 1D;
+        }
+        if (frequency <= 0D) {
+            return 0D;
+        }
+        double ratio = rate / frequency;
+        return (1D - Math.exp(-ratio)) / ratio;
+    }
+
+    /**
+     * Splits a budget of visits among sources to maximize their average freshness.
+     *
+     * @param rates        change rate of every source, &gt;= 0
+     * @param budget       total visit frequency, in the same unit of time
+     * @param minFrequency minimum visit frequency of every source, so that changes of stable sources are still seen
+     * @param maxFrequency maximum visit frequency of every source
+     * @return visit frequency of every source, summing up to the budget unless bounded by the frequency bounds
+     */
+    public static double[] allocate(double[] rates, double budget, double minFrequency, double maxFrequency) {
+        Preconditions.checkNotNull(rates, "rates should not be null");
+        Preconditions.checkArgument(minFrequency >= 0D && maxFrequency >= minFrequency,
+                "frequency bounds must be 0 <= min <= max but are %s and %s", minFrequency, maxFrequency);
+        Preconditions.checkArgument(budget >= rates.length * minFrequency,
+                "budget must be at least minFrequency per source but is %s", budget);
+
+        double[] frequencies = new double[rates.length];
+        double maxMultiplier = 0D;
+        for (double rate : rates) {
+            Preconditions.checkArgument(rate >= 0D, "rate must be >= 0 but is %s", rate);
+            if (rate > 0D) {
+                maxMultiplier = Math.max(maxMultiplier, 1D / rate);
+            }
+        }
+
+        // the sum of frequencies falls as the marginal freshness required goes up, search for the one fitting budget
+        if (rates.length * maxFrequency <= budget || maxMultiplier == 0D) {
+            fill(rates, 0D, minFrequency, maxFrequency, frequencies);
+            return frequencies;
+        }
+        double low = 0D;
+        double high = maxMultiplier;
+        for (int i = 0; i < ITERATIONS; i++) {
+            double multiplier = (low + high) / 2D;
+            if (fill(rates, multiplier, minFrequency, maxFrequency, frequencies) > budget) {
+                low = multiplier;
+            } else {
+                high = multiplier;
+            }
+        }
+        fill(rates, high, minFrequency, maxFrequency, frequencies);
+        return frequencies;
+    }
+
+    /**
+     * Fills in the frequency of every source at which one more visit gains the given marginal freshness.
+     *
+     * @return sum of frequencies
+     */
+    private static double fill(double[] rates, double multiplier, double minFrequency, double maxFrequency, double[] frequencies) {
+        double sum = 0D;
+        for (int i = 0; i < rates.length; i++) {
+            double rate = rates[i];
+            double frequency;
+            if (rate == 0D || multiplier * rate >= 1D) {
+                frequency = minFrequency;
+            } else if (multiplier == 0D) {
+                frequency = maxFrequency;
+            } else {
+                frequency = rate / solveRatio(multiplier * rate);
+            }
+            frequency = Math.min(Math.max(frequency, minFrequency), maxFrequency);
+            frequencies[i] = frequency;
+            sum += frequency;
+        }
+        return sum;
+    }
+
+    /**
+     * Solves <code>1 - e^(-x) * (1 + x) = y</code> for the ratio <code>x</code> of rate to frequency, where the
+     * left side is the marginal freshness of a visit times the rate, increasing in <code>x</code>. Newton steps
+     * falling out of the bracket of the root are replaced by bisection.
+     */
+    private static double solveRatio(double y) {
+        double low = 0D;
+        double high = MAX_RATIO;
+        double x = y < 0.5D ? Math.sqrt(2D * y) : 1D - Math.log(1D - y);
+        for (int i = 0; i < ITERATIONS; i++) {
+            if (x <= low || x >= high) {
+                x = (low + high) / 2D;
+            }
+            double exp = Math.exp(-x);
+            double error = 1D - exp * (1D + x) - y;
+            if (error < 0D) {
+                low = x;
+            } else {
+                high = x;
+            }
+            double step = error / (x * exp);
+            x -= step;
+            if (Math.abs(step) <= PRECISION * x) {
+                break;
+            }
+        }
+        return x;
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dyngr.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import com.dyngr.util.Preconditions;
+
+/**
+ * Polls many sources changing at different rates, keeping them as fresh as possible under a global budget of
+ * attempts per second.
+ * <p>
+ * Every source is visited by one attempt of its own attempt maker at a time, and is told to have changed since
+ * the last visit if the attempt made progress or drained, e.g. by wrapping it in a {@link ChangeDetectingAttemptMaker}.
+ * A {@link ChangeRateEstimator} per source learns its change rate from these visits, and every round of visits,
+ * i.e. as many visits as there are sources, the budget is split again among sources by {@link RevisitPolicy}.
+ * Sources not visited yet are assumed to change at the mean rate of the others.
+ * <p>
+ * Attempts throwing an exception are not observed and the source is visited again at its interval. A source is
+ * removed once its attempt returns {@link AttemptState#FINISH} or {@link AttemptState#BREAK}.
+ *
+ * @param <K> the type of key
+ * @author dingye
+ */
+public class RevisitScheduler<K> {
+    private static final int ESTIMATOR_WINDOW = 64;
+
+    private final double budget;
+    private final long minInterval;
+    private final long maxInterval;
+    private final ScheduledExecutorService scheduler;
+    private final Object lock = new Object();
+    private final AtomicLong visitCount = new AtomicLong();
+
+    @GuardedBy("lock")
+    private final Map<K, Source> sources = new LinkedHashMap<K, Source>();
+    @GuardedBy("lock")
+    private long nextRebalance;
+    @GuardedBy("lock")
+    private boolean closed;
+
+    /**
+     * @param attemptsPerSecond global budget of attempts per second
+     * @param minInterval       minimum time between visits of a source
+     * @param maxInterval       maximum time between visits of a source, so that changes of stable sources are still seen
+     * @param timeUnit          unit of both intervals
+     * @param scheduler         scheduler to make attempts on
+     */
+    public RevisitScheduler(double attemptsPerSecond,
+                            long minInterval,
+                            long maxInterval,
+                            TimeUnit timeUnit,
+                            ScheduledExecutorService scheduler) {
+        Preconditions.checkArgument(attemptsPerSecond > 0D, "attemptsPerSecond must be > 0 but is %s", attemptsPerSecond);
+        Preconditions.checkNotNull(timeUnit, "timeUnit should not be null");
+        Preconditions.checkArgument(timeUnit.toMillis(minInterval) > 0L, "minInterval must be at least 1 millisecond");
+        Preconditions.checkArgument(maxInterval >= minInterval, "maxInterval must be >= minInterval but is %s", maxInterval);
+        Preconditions.checkNotNull(scheduler, "scheduler should not be null");
+        this.budget = attemptsPerSecond / 1000D;
+        this.minInterval = timeUnit.toMillis(minInterval);
+        this.maxInterval = timeUnit.toMillis(maxInterval);
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Adds a source and visits it at once.
+     *
+     * @param key   key of the source
+     * @param maker makes a visit of the source
+     * @throws IllegalStateException if the key is already added or this scheduler is closed
+     */
+    public void addSource(K key, AttemptMaker<?> maker) {
+        Preconditions.checkNotNull(key, "key should not be null");
+        Preconditions.checkNotNull(maker, "maker should not be null");
+        Source source = new Source(key, maker);
+        synchronized (lock) {
+            Preconditions.checkState(!closed, "Scheduler is closed");
+            Preconditions.checkState(!sources.containsKey(key), "Source %s is already added", key);
+            sources.put(key, source);
+            rebalance();
+        }
+        source.schedule(0L);
+    }
+
+    /**
+     * Removes a source, an attempt being made is not interrupted.
+     *
+     * @param key key of the source
+     * @return <code>true</code> if the source was added
+     */
+    public boolean removeSource(K key) {
+        Source source;
+        synchronized (lock) {
+            source = sources.remove(key);
+            if (source != null && !sources.isEmpty()) {
+                rebalance();
+            }
+        }
+        if (source == null) {
+            return false;
+        }
+        source.cancel();
+        return true;
+    }
+
+    /**
+     * Stops visiting all sources.
+     */
+    public void close() {
+        List<Source> removed;
+        synchronized (lock) {
+            closed = true;
+            removed = new ArrayList<Source>(sources.values());
+            sources.clear();
+        }
+        for (Source source : removed) {
+            source.cancel();
+        }
+    }
+
+    /**
+     * Gets the current interval between visits of a source.
+     *
+     * @param key key of the source
+     * @return the interval in milliseconds, or <code>-1</code> if there is no such source
+     */
+    public long getInterval(K key) {
+        Source source;
+        synchronized (lock) {
+            source = sources.get(key);
+        }
+        return source == null ? -1L : source.interval;
+    }
+
+    /**
+     * Gets the estimated change rate of a source.
+     *
+     * @param key key of the source
+     * @return changes per second, or {@link Double#NaN} if unknown
+     */
+    public double getChangeRate(K key) {
+        Source source;
+        synchronized (lock) {
+            source = sources.get(key);
+        }
+        return source == null ? Double.NaN : source.estimator.getRate() * 1000D;
+    }
+
+    /**
+     * Number of visits made to all sources.
+     */
+    public long getVisitCount() {
+        return visitCount.get();
+    }
+
+    @GuardedBy("lock")
+    private void rebalance() {
+        nextRebalance = visitCount.get() + sources.size();
+
+        List<Source> all = new ArrayList<Source>(sources.values());
+        double[] rates = new double[all.size()];
+        double knownSum = 0D;
+        int knownCount = 0;
+        for (int i = 0; i < rates.length; i++) {
+            rates[i] = all.get(i).estimator.getRate();
+            if (!Double.isNaN(rates[i])) {
+                knownSum += rates[i];
+                knownCount++;
+            }
+        }
+
+        double minFrequency = 1D / maxInterval;
+        double maxFrequency = 1D / minInterval;
+        double total = Math.max(budget, minFrequency * rates.length);
+        if (knownCount == 0) {
+            for (Source source : all) {
+                source.interval = toInterval(total / rates.length);
+            }
+            return;
+        }
+
+        double meanRate = knownSum / knownCount;
+        for (int i = 0; i < rates.length; i++) {
+            if (Double.isNaN(rates[i])) {
+                rates[i] = meanRate;
+            }
+        }
+        double[] frequencies = RevisitPolicy.allocate(rates, total, minFrequency, maxFrequency);
+        for (int i = 0; i < frequencies.length; i++) {
+            all.get(i).interval = toInterval(frequencies[i]);
+        }
+    }
+
+    private long toInterval(double frequency) {
+        return Math.min(Math.max(Math.round(1D / frequency), minInterval), maxInterval);
+    }
+
+    private void onVisited(Source source, AttemptResult<?> result) {
+        long count = visitCount.incrementAndGet();
+        if (result.getState() == AttemptState.FINISH || result.getState() == AttemptState.BREAK) {
+            removeSource(source.key);
+            return;
+        }
+
+        synchronized (lock) {
+            if (sources.get(source.key) != source) {
+                return;
+            }
+            if (count >= nextRebalance) {
+                rebalance();
+            }
+        }
+        source.schedule(source.interval);
+    }
+
+    /**
+     * A polled source, visited one attempt at a time.
+     */
+    private class Source implements Runnable {
+        private final K key;
+        private final AttemptMaker<?> maker;
+        private final ChangeRateEstimator estimator;
+        private volatile long interval;
+        private volatile long lastVisit = -1L;
+        private volatile boolean cancelled;
+        private volatile Future<?> pending;
+
+        Source(K key, AttemptMaker<?> maker) {
+            this.key = key;
+            this.maker = maker;
+            this.estimator = new ChangeRateEstimator(ESTIMATOR_WINDOW);
+            this.interval = minInterval;
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            AttemptResult<?> result = PollingLoop.attempt(maker);
+            if (result == null) {
+                result = AttemptResults.continueFor(new IllegalStateException("AttemptMaker has returned a null result"));
+            }
+            if (result.getCause() == null || result.getState() != AttemptState.CONTINUE) {
+                if (lastVisit >= 0L) {
+                    boolean changed = result.madeProgress() || result.getState() == AttemptState.DRAIN;
+                    estimator.observe(now - lastVisit, changed);
+                }
+                lastVisit = now;
+            }
+            onVisited(this, result);
+        }
+
+        void schedule(long delay) {
+            if (cancelled) {
+                return;
+            }
+            try {
+                pending = scheduler.schedule(this, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // the scheduler is shut down
+            }
+            if (cancelled) {
+                cancel();
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            Future<?> future = pending;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import com.dyngr.ListenablePoller;
+import com.dyngr.Poller;
+import com.dyngr.concurrent.ListenableFuture;
+import com.dyngr.concurrent.SettableFuture;
+
+/**
+ * A {@link Poller} running on a {@link ScheduledExecutorService}. Instead of sleeping between attempts,
+ * next attempt is scheduled on the scheduler, so no thread is occupied while waiting and many pollers
+ * can share a small scheduler.
+ * <p>
+ * Cancelling the returned future stops polling at once, even if the poller is waiting for next attempt.
+ *
+ * @author dingye
+ */
+public class ScheduledPoller<V> implements ListenablePoller<V> {
+    private final AtomicBoolean started;
+    private final ScheduledExecutorService scheduler;
+    private final StopStrategy stopStrategy;
+    private final WaitStrategy waitStrategy;
+    private final AttemptMaker<V> maker;
+    private final long deadline;
+
+    public ScheduledPoller(AttemptMaker<V> maker, StopStrategy stopStrategy, WaitStrategy waitStrategy, ScheduledExecutorService scheduler) {
+        this(maker, stopStrategy, waitStrategy, scheduler, PollingLoop.NO_DEADLINE);
+    }
+
+    /**
+     * @param deadline time by which polling must end, see {@link PollingLoop#PollingLoop(AttemptMaker, StopStrategy, WaitStrategy, long)}
+     */
+    public ScheduledPoller(AttemptMaker<V> maker, StopStrategy stopStrategy, WaitStrategy waitStrategy, ScheduledExecutorService scheduler,
+                           long deadline) {
+        this.started = new AtomicBoolean(false);
+        this.maker = maker;
+        this.stopStrategy = stopStrategy;
+        this.waitStrategy = waitStrategy;
+        this.scheduler = scheduler;
+        this.deadline = deadline;
+    }
+
+    @Override
+    public ListenableFuture<V> start() {
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("Poller already started");
+        }
+        ScheduledPolling<V> polling = new ScheduledPolling<V>(new PollingLoop<V>(maker, stopStrategy, waitStrategy, deadline), scheduler);
+        polling.schedule(0L);
+        return polling;
+    }
+
+    /**
+     * Future of a running polling, which is also the task making every attempt.
+     */
+    private static class ScheduledPolling<V> extends SettableFuture<V> {
+        private final PollingLoop<V> loop;
+        private final ScheduledExecutorService scheduler;
+        private final Runnable attempt;
+        private final Object lock = new Object();
+
+        /**
+         * number of attempts started, used to tell whether {@link #pending} is outdated
+         */
+        @GuardedBy("lock")
+        private long attemptCount;
+
+        @GuardedBy("lock")
+        private Future<?> pending;
+
+        public ScheduledPolling(PollingLoop<V> loop, ScheduledExecutorService scheduler) {
+            this.loop = loop;
+            this.scheduler = scheduler;
+            this.attempt = new Runnable() {
+                @Override
+                public void run() {
+                    step();
+                }
+            };
+        }
+
+        private void step() {
+            if (isDone()) {
+                return;
+            }
+
+            synchronized (lock) {
+                attemptCount++;
+            }
+
+            try {
+                if (loop.step()) {
+                    set(loop.getResult());
+                } else {
+                    schedule(loop.getWaitTime());
+                }
+            } catch (Throwable e) {
+                setException(e);
+            }
+        }
+
+        private void schedule(long waitTime) {
+            long scheduledBy;
+            synchronized (lock) {
+                scheduledBy = attemptCount;
+            }
+
+            Future<?> next = scheduler.schedule(attempt, waitTime, TimeUnit.MILLISECONDS);
+
+            synchronized (lock) {
+                // the attempt may have already run and scheduled another one
+                if (attemptCount == scheduledBy) {
+                    pending = next;
+                }
+            }
+
+            // cancelled while scheduling
+            if (isCancelled()) {
+                next.cancel(false);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Future<?> next;
+            synchronized (lock) {
+                next = pending;
+            }
+            if (cancelled && next != null) {
+                next.cancel(false);
+            }
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.dyngr.ListenablePoller;
+import com.dyngr.concurrent.DirectExecutor;
+import com.dyngr.concurrent.FutureCallback;
+import com.dyngr.concurrent.ListenableFuture;
+import com.dyngr.concurrent.SettableFuture;
+import com.dyngr.util.Preconditions;
+
+/**
+ * A registry of pollings in flight by key, which makes concurrent pollings of the same key share one polling.
+ * <p>
+ * The first caller polling a key starts its poller, and callers coming while it is in flight get the same future
+ * without starting their pollers. The key is removed as soon as the polling completes, so the next caller starts
+ * a new one. Lookups are lock-free by a {@link ConcurrentHashMap}.
+ * <p>
+ * The future is shared by all callers of the key, so cancelling it cancels the polling for all of them.
+ *
+ * @param <K> the type of key
+ * @param <V> the type of result
+ * @author dingye
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentMap<K, ListenableFuture<V>> inFlight;
+
+    public SingleFlight() {
+        this.inFlight = new ConcurrentHashMap<K, ListenableFuture<V>>();
+    }
+
+    /**
+     * Polls a key by given poller, or attaches to the polling of the key in flight.
+     *
+     * @param key    the key to poll
+     * @param poller started only if no polling of the key is in flight, should not have been started
+     * @return future of the result, shared by all callers of the key
+     */
+    public ListenableFuture<V> poll(final K key, ListenablePoller<? extends V> poller) {
+        Preconditions.checkNotNull(key, "key should not be null");
+        Preconditions.checkNotNull(poller, "poller should not be null");
+
+        ListenableFuture<V> existing = inFlight.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        final SharedPolling<V> shared = new SharedPolling<V>();
+        existing = inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            return existing;
+        }
+
+        // removes the key when cancelled or failed to start
+        shared.addListener(new Runnable() {
+            @Override
+            public void run() {
+                inFlight.remove(key, shared);
+            }
+        }, DirectExecutor.INSTANCE);
+
+        final ListenableFuture<? extends V> future;
+        try {
+            future = poller.start();
+        } catch (RuntimeException e) {
+            shared.setException(e);
+            return shared;
+        }
+        shared.setUpstream(future);
+
+        // removed before completed, so no caller attaches to a completed polling
+        FutureCallback.addCallback(future, new FutureCallback<V>() {
+            @Override
+            public void onSuccess(V result) {
+                inFlight.remove(key, shared);
+                shared.set(result);
+            }
+
+            @Override
+            public void onFailure(Throwable cause) {
+                inFlight.remove(key, shared);
+                shared.setException(cause);
+            }
+
+            @Override
+            public void onCancelled(CancellationException e) {
+                inFlight.remove(key, shared);
+                shared.cancel(false);
+            }
+        }, DirectExecutor.INSTANCE);
+        return shared;
+    }
+
+    /**
+     * Number of keys being polled.
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Tells if a key is being polled.
+     *
+     * @param key the key
+     * @return <code>true</code> if a polling of the key is in flight
+     */
+    public boolean isInFlight(K key) {
+        return inFlight.containsKey(key);
+    }
+
+    /**
+     * Future shared by callers of a key, which cancels the polling when cancelled.
+     */
+    private static class SharedPolling<V> extends SettableFuture<V> {
+        private volatile ListenableFuture<?> upstream;
+
+        void setUpstream(ListenableFuture<?> upstream) {
+            this.upstream = upstream;
+            // cancelled while starting
+            if (isCancelled()) {
+                upstream.cancel(true);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            ListenableFuture<?> future = upstream;
+            if (cancelled && future != null) {
+                future.cancel(mayInterruptIfRunning);
+            }
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+/**
+ * An user defined polling body which gets the state left by the previous attempt, such as a cursor, an ETag
+ * or a version, and returns the state for the next attempt along with its result. So each attempt only needs
+ * to fetch what is new since the previous one.
+ * <p>
+ * Poll it by wrapping it in a {@link StatefulPolling}, which threads the state through attempts.
+ *
+ * @param <S> the type of state
+ * @param <V> the type of result
+ * @author dingye
+ */
+public interface StatefulAttemptMaker<S, V> {
+    /**
+     * Do the actual polling action.
+     *
+     * @param state state returned by the previous attempt, or the initial state for the first attempt
+     * @return an attempt result with the next state
+     * @throws Exception any Exception will be caught by poller, and the state is kept for the next attempt
+     */
+    StatefulAttemptResult<S, V> process(S state) throws Exception;
+}
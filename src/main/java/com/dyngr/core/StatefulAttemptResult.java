@@ -0,0 +1,164 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import com.dyngr.exception.UserBreakException;
+
+/**
+ * Result of a single attempt made by {@link StatefulAttemptMaker}, which also holds the state for the next attempt.
+ *
+ * @param <S> the type of state
+ * @param <V> the type of result
+ * @author dingye
+ */
+public final class StatefulAttemptResult<S, V> extends AttemptResult<V> {
+    private final boolean stateChanged;
+    private final S nextState;
+
+    private StatefulAttemptResult(AttemptState state, V result, String message, @Nullable Throwable cause,
+                                  boolean stateChanged, S nextState) {
+        super(state, result, message, cause);
+        this.stateChanged = stateChanged;
+        this.nextState = nextState;
+    }
+
+    private StatefulAttemptResult(StatefulAttemptResult<S, V> origin, boolean progress, long waitHint,
+                                  double reportedProgress) {
+        super(origin, progress, waitHint, reportedProgress);
+        this.stateChanged = origin.stateChanged;
+        this.nextState = origin.nextState;
+    }
+
+    /**
+     * Tells if this attempt has changed the state.
+     *
+     * @return <code>true</code> if {@link #getNextState()} should replace current state
+     */
+    public boolean isStateChanged() {
+        return stateChanged;
+    }
+
+    /**
+     * Gets the state for the next attempt.
+     *
+     * @return the next state, only meaningful if {@link #isStateChanged()}
+     */
+    public S getNextState() {
+        return nextState;
+    }
+
+    @Override
+    public StatefulAttemptResult<S, V> withProgress() {
+        return withDetails(true, getWaitHint(), getReportedProgress());
+    }
+
+    @Override
+    public StatefulAttemptResult<S, V> withWaitHint(long duration, TimeUnit timeUnit) {
+        return withDetails(madeProgress(), toWaitHint(duration, timeUnit), getReportedProgress());
+    }
+
+    @Override
+    public StatefulAttemptResult<S, V> withReportedProgress(double fraction) {
+        return withDetails(madeProgress(), getWaitHint(), checkFraction(fraction));
+    }
+
+    @Override
+    StatefulAttemptResult<S, V> withDetails(boolean progress, long waitHint, double reportedProgress) {
+        return new StatefulAttemptResult<S, V>(this, progress, waitHint, reportedProgress);
+    }
+
+    /**
+     * Return an {@link StatefulAttemptResult} that will end polling with given result.
+     *
+     * @param result    result of a successful attempt
+     * @param nextState state after this attempt
+     * @param <S> the type of state
+     * @param <V> the type of result
+     * @return an attempt result
+     */
+    public static <S, V> StatefulAttemptResult<S, V> finishWith(V result, S nextState) {
+        return new StatefulAttemptResult<S, V>(AttemptState.FINISH, result, "", null, true, nextState);
+    }
+
+    /**
+     * Return an {@link StatefulAttemptResult} that makes polling continue from given state.
+     *
+     * @param nextState state for the next attempt
+     * @param <S> the type of state
+     * @param <V> the type of result
+     * @return an attempt result
+     */
+    public static <S, V> StatefulAttemptResult<S, V> continueWith(S nextState) {
+        return new StatefulAttemptResult<S, V>(AttemptState.CONTINUE, null, "", null, true, nextState);
+    }
+
+    /**
+     * Return an {@link StatefulAttemptResult} that makes polling continue from given state at once,
+     * see {@link AttemptResults#drain()}.
+     *
+     * @param nextState state for the next attempt
+     * @param <S> the type of state
+     * @param <V> the type of result
+     * @return an attempt result
+     */
+    public static <S, V> StatefulAttemptResult<S, V> drainFrom(S nextState) {
+        return new StatefulAttemptResult<S, V>(AttemptState.DRAIN, null, "", null, true, nextState);
+    }
+
+    /**
+     * Return an {@link StatefulAttemptResult} that makes polling continue with an exception,
+     * the state is kept for the next attempt.
+     *
+     * @param cause the exception that failed this attempt
+     * @param <S> the type of state
+     * @param <V> the type of result
+     * @return an attempt result
+     */
+    public static <S, V> StatefulAttemptResult<S, V> continueFor(Throwable cause) {
+        return new StatefulAttemptResult<S, V>(AttemptState.CONTINUE, null, "", cause, false, null);
+    }
+
+    /**
+     * Return an {@link StatefulAttemptResult} that will break polling and throw an {@link UserBreakException},
+     * the state is kept.
+     *
+     * @param message message about reason
+     * @param <S> the type of state
+     * @param <V> the type of result
+     * @return an attempt result
+     */
+    public static <S, V> StatefulAttemptResult<S, V> breakFor(String message) {
+        return new StatefulAttemptResult<S, V>(AttemptState.BREAK, null, message, null, false, null);
+    }
+
+    /**
+     * Return an {@link StatefulAttemptResult} that will break polling and throw an {@link UserBreakException},
+     * the state is kept.
+     *
+     * @param cause reason of user break
+     * @param <S> the type of state
+     * @param <V> the type of result
+     * @return an attempt result
+     */
+    public static <S, V> StatefulAttemptResult<S, V> breakFor(Throwable cause) {
+        return new StatefulAttemptResult<S, V>(AttemptState.BREAK, null, cause.getMessage(), cause, false, null);
+    }
+}
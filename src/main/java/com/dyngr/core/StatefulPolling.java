@@ -0,0 +1,65 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dyngr.core;
+
+import com.dyngr.util.Preconditions;
+
+/**
+ * An {@link AttemptMaker} that threads the state of a {@link StatefulAttemptMaker} through attempts.
+ * <p>
+ * The state is kept when an attempt fails, breaks or throws, so the next attempt retries from the same point.
+ * It outlives the polling: after polling has stopped for any reason, {@link #getState()} tells where it has
+ * reached, and can be saved or passed to a new <code>StatefulPolling</code> to resume polling from there.
+ * <p>
+ * Attempts of one polling are made one at a time, so it must not be shared by pollings running together.
+ *
+ * @param <S> the type of state
+ * @param <V> the type of result
+ * @author dingye
+ */
+public class StatefulPolling<S, V> implements AttemptMaker<V> {
+    private final StatefulAttemptMaker<S, V> maker;
+    private volatile S state;
+
+    /**
+     * @param maker        the polling body
+     * @param initialState state for the first attempt, e.g. a cursor saved by a previous polling
+     */
+    public StatefulPolling(StatefulAttemptMaker<S, V> maker, S initialState) {
+        Preconditions.checkNotNull(maker, "maker should not be null");
+        this.maker = maker;
+        this.state = initialState;
+    }
+
+    @Override
+    public AttemptResult<V> process() throws Exception {
+        StatefulAttemptResult<S, V> result = maker.process(state);
+        if (result != null && result.isStateChanged()) {
+            state = result.getNextState();
+        }
+        return result;
+    }
+
+    /**
+     * Gets the state returned by the last successful attempt.
+     *
+     * @return the current state
+     */
+    public S getState() {
+        return state;
+    }
+}
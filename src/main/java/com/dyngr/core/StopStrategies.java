@@ -26,6 +26,7 @@ import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
 
 import com.dyngr.core.strategy.CompositeStopStrategy;
+import com.dyngr.core.strategy.FailureRateStopStrategy;
 import com.dyngr.core.strategy.NeverStopStrategy;
 import com.dyngr.core.strategy.StopAfterAttemptStrategy;
 import com.dyngr.core.strategy.StopAfterDelayStrategy;
@@ -79,6 +80,45 @@ public final class StopStrategies {
         return new StopAfterDelayStrategy(timeUnit.toMillis(duration));
     }
 
+    /**
+     * Returns a stop strategy which stops once the last {@code windowSize} attempts are made and the ratio of
+     * attempts with an exception among them reaches {@code threshold}. Use it with
+     * <code>stopIfException(false)</code>, or the first exception stops polling.
+     * <p>
+     * Recent attempts are kept by the poller for every polling, so the strategy can be shared by pollers.
+     *
+     * @param threshold  ratio of attempts with an exception to stop at, in (0, 1], e.g. 0.8
+     * @param windowSize number of recent attempts
+     * @return a stop strategy which stops at a failure rate
+     */
+    public static StopStrategy stopAtFailureRate(double threshold, int windowSize) {
+        return new FailureRateStopStrategy(threshold, windowSize, Long.MAX_VALUE, windowSize);
+    }
+
+    /**
+     * Returns a stop strategy which stops when the ratio of attempts with an exception, among the last
+     * {@code windowSize} attempts within {@code windowTime}, reaches {@code threshold}, once there are at least
+     * {@code minAttempts} of them. The age of attempts is measured to a tenth of {@code windowTime}. Use it with
+     * <code>stopIfException(false)</code>, or the first exception stops polling.
+     * <p>
+     * Recent attempts are kept by the poller for every polling, so the strategy can be shared by pollers.
+     *
+     * @param threshold   ratio of attempts with an exception to stop at, in (0, 1], e.g. 0.8
+     * @param windowSize  the maximum number of recent attempts
+     * @param windowTime  the maximum age of recent attempts
+     * @param timeUnit    the unit of the age
+     * @param minAttempts the minimum number of recent attempts to decide on
+     * @return a stop strategy which stops at a failure rate
+     */
+    public static StopStrategy stopAtFailureRate(double threshold,
+                                                 int windowSize,
+                                                 long windowTime,
+                                                 @Nonnull TimeUnit timeUnit,
+                                                 int minAttempts) {
+        Preconditions.checkNotNull(timeUnit, "The time unit may not be null");
+        return new FailureRateStopStrategy(threshold, windowSize, timeUnit.toMillis(windowTime), minAttempts);
+    }
+
     /**
      * Joins one or more stop strategies to derive a composite stop strategy.
      * The new joined strategy will stop if any underlying stop strategy says so.
@@ -20,7 +20,9 @@ package com.dyngr.core;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
@@ -199,6 +201,132 @@ public final class WaitStrategies {
         return new FibonacciWaitStrategy(multiplier, maximumTimeUnit.toMillis(maximumTime));
     }
 
+    /**
+     * Returns a strategy which adapts the wait time to how often attempts make progress, by AIMD: it halves the
+     * wait time after an attempt made progress, and adds {@code minimumTime} to it after an attempt found nothing,
+     * always keeping it between {@code minimumTime} and {@code maximumTime}.
+     * <p>
+     * The current wait time is a {@link PollingLocal} kept by the poller for every polling, so the strategy can be
+     * shared by pollers.
+     *
+     * @param minimumTime the minimum time to sleep, also the first wait time
+     * @param maximumTime the maximum time to sleep
+     * @param timeUnit    the unit of both times
+     * @return a wait strategy adapting to progress of attempts
+     * @see DetailedAttempt#madeProgress()
+     */
+    public static WaitStrategy adaptiveWait(long minimumTime, long maximumTime, TimeUnit timeUnit) {
+        Preconditions.checkNotNull(timeUnit, "The time unit may not be null");
+        return new AdaptiveWaitStrategy(timeUnit.toMillis(minimumTime), timeUnit.toMillis(maximumTime),
+                0.5D, timeUnit.toMillis(minimumTime), 1.0D);
+    }
+
+    /**
+     * Returns a strategy which adapts the wait time to how often attempts make progress. After an attempt made
+     * progress, the wait time is multiplied by {@code decreaseFactor}. After an attempt found nothing, it is
+     * multiplied by {@code increaseFactor} and then added {@code increment}, so it grows additively with a factor
+     * of 1, or multiplicatively with no increment. It is always kept between {@code minimumTime} and
+     * {@code maximumTime}.
+     * <p>
+     * The current wait time is a {@link PollingLocal} kept by the poller for every polling, so the strategy can be
+     * shared by pollers.
+     *
+     * @param minimumTime    the minimum time to sleep, also the first wait time
+     * @param maximumTime    the maximum time to sleep
+     * @param timeUnit       the unit of all times
+     * @param decreaseFactor factor in (0, 1] applied after progress
+     * @param increment      time added after no progress
+     * @param increaseFactor factor &gt;= 1 applied after no progress
+     * @return a wait strategy adapting to progress of attempts
+     * @see DetailedAttempt#madeProgress()
+     */
+    public static WaitStrategy adaptiveWait(long minimumTime,
+                                            long maximumTime,
+                                            TimeUnit timeUnit,
+                                            double decreaseFactor,
+                                            long increment,
+                                            double increaseFactor) {
+        Preconditions.checkNotNull(timeUnit, "The time unit may not be null");
+        return new AdaptiveWaitStrategy(timeUnit.toMillis(minimumTime), timeUnit.toMillis(maximumTime),
+                decreaseFactor, timeUnit.toMillis(increment), increaseFactor);
+    }
+
+    /**
+     * Returns a strategy which honours the wait time hinted by an attempt, clamped between {@code minimumTime} and
+     * {@code maximumTime}, and falls back to the given strategy for attempts without a hint.
+     *
+     * @param fallbackStrategy strategy for attempts without a hint
+     * @param minimumTime      the minimum time to sleep after a hint
+     * @param maximumTime      the maximum time to sleep after a hint
+     * @param timeUnit         the unit of both times
+     * @return a wait strategy honouring hints
+     * @see AttemptResults#continueAfter(long, TimeUnit)
+     */
+    public static WaitStrategy hintedWait(WaitStrategy fallbackStrategy,
+                                          long minimumTime,
+                                          long maximumTime,
+                                          TimeUnit timeUnit) {
+        Preconditions.checkNotNull(fallbackStrategy, "fallbackStrategy may not be null");
+        Preconditions.checkNotNull(timeUnit, "The time unit may not be null");
+        return new HintedWaitStrategy(fallbackStrategy, timeUnit.toMillis(minimumTime), timeUnit.toMillis(maximumTime));
+    }
+
+    /**
+     * Returns a strategy which sleeps for the longer of the wait time computed by the given strategy and the one
+     * hinted by the attempt, so that a hint can only make polling slower.
+     *
+     * @param waitStrategy strategy to compute the wait time
+     * @return a wait strategy combining hints
+     * @see AttemptResults#continueAfter(long, TimeUnit)
+     */
+    public static WaitStrategy atLeastHinted(WaitStrategy waitStrategy) {
+        Preconditions.checkNotNull(waitStrategy, "waitStrategy may not be null");
+        return new AtLeastHintedWaitStrategy(waitStrategy);
+    }
+
+    /**
+     * Returns a strategy which sleeps until the estimated completion of a long-running job, whose attempts report
+     * progress by {@link AttemptResults#continueAt(double)}. The progress rate is measured from the first report
+     * of a polling to the latest one, and the remaining work divided by it is the time to wait, kept between
+     * {@code minimumTime} and {@code maximumTime} as a safety cap against bad estimates.
+     * <p>
+     * Until a rate is known, i.e. after the first report or an attempt without report, it sleeps
+     * {@code minimumTime}. While progress doesn't move, it sleeps as long as has passed since the first report.
+     * The first report is a {@link PollingLocal} kept by the poller for every polling, so the strategy can be shared
+     * by pollers.
+     *
+     * @param minimumTime the minimum time to sleep
+     * @param maximumTime the maximum time to sleep
+     * @param timeUnit    the unit of both times
+     * @return a wait strategy sleeping until estimated completion
+     * @see DetailedAttempt#getReportedProgress()
+     */
+    public static WaitStrategy etaWait(long minimumTime, long maximumTime, TimeUnit timeUnit) {
+        Preconditions.checkNotNull(timeUnit, "The time unit may not be null");
+        return new EtaWaitStrategy(timeUnit.toMillis(minimumTime), timeUnit.toMillis(maximumTime));
+    }
+
+    /**
+     * Returns a strategy which sleeps in proportion to the moving average of attempt durations, so that polling
+     * backs off as the backend slows down and recovers as it heals. E.g. with a {@code multiplier} of 9, attempts
+     * keep the backend busy for at most about 10% of time. The wait time is kept between {@code minimumTime} and
+     * {@code maximumTime}, and is {@code minimumTime} while no duration is known.
+     *
+     * @param multiplier  multiply the average attempt duration by this
+     * @param minimumTime the minimum time to sleep
+     * @param maximumTime the maximum time to sleep
+     * @param timeUnit    the unit of both times
+     * @return a wait strategy proportional to attempt latency
+     * @see DetailedAttempt#getAverageLatency()
+     */
+    public static WaitStrategy latencyProportionalWait(double multiplier,
+                                                       long minimumTime,
+                                                       long maximumTime,
+                                                       TimeUnit timeUnit) {
+        Preconditions.checkNotNull(timeUnit, "The time unit may not be null");
+        return new LatencyProportionalWaitStrategy(multiplier, timeUnit.toMillis(minimumTime), timeUnit.toMillis(maximumTime));
+    }
+
     /**
      * Returns a strategy which sleeps for an amount of time based on the Exception that occurred. The
      * {@code function} determines how the sleep time should be calculated for the given
@@ -215,6 +343,29 @@ public final class WaitStrategies {
         return new ExceptionWaitStrategy<T>(exceptionClass, calculator);
     }
 
+    /**
+     * Returns a strategy which routes an exception to the handler of its most specific class, i.e. the first class
+     * in the map found by walking up from the class of the exception through its superclasses. Attempts without
+     * exception, or with an exception no class in the map is assignable from, go to the fallback strategy.
+     * <p>
+     * The handler of every exception class is resolved once and cached by a {@link ClassValue}, so routing costs
+     * a single lookup however many handlers there are. Unlike joining several {@link #exceptionWait(Class, ExceptionWaitHandler)},
+     * exactly one handler or the fallback strategy computes the wait time.
+     *
+     * @param handlers         handler of every exception class, each must handle its own class and subclasses
+     * @param fallbackStrategy strategy for attempts not routed to any handler
+     * @return a wait strategy routing exceptions to handlers
+     */
+    public static WaitStrategy exceptionRouter(Map<Class<? extends Throwable>, ? extends ExceptionWaitHandler<?>> handlers,
+                                               WaitStrategy fallbackStrategy) {
+        Preconditions.checkNotNull(handlers, "handlers may not be null");
+        Preconditions.checkNotNull(fallbackStrategy, "fallbackStrategy may not be null");
+        Map<Class<? extends Throwable>, ExceptionWaitHandler<?>> copy = new LinkedHashMap<Class<? extends Throwable>, ExceptionWaitHandler<?>>(handlers);
+        Preconditions.checkArgument(!copy.containsKey(null), "Cannot have a null exception class");
+        Preconditions.checkArgument(!copy.containsValue(null), "Cannot have a null handler");
+        return new ExceptionRouterWaitStrategy(copy, fallbackStrategy);
+    }
+
     /**
      * Joins one or more wait strategies to derive a composite wait strategy.
      * The new joined strategy will have a wait time which is total of all wait times computed one after another in order.
@@ -348,6 +499,177 @@ public final class WaitStrategies {
         }
     }
 
+    private static final class AdaptiveWaitStrategy implements WaitStrategy {
+        private final long minimumWait;
+        private final long maximumWait;
+        private final double decreaseFactor;
+        private final long increment;
+        private final double increaseFactor;
+
+        /**
+         * wait time of the current polling, in a single element array
+         */
+        private final PollingLocal<long[]> currentWait = new PollingLocal<long[]>() {
+            @Override
+            protected long[] initialValue() {
+                return new long[]{minimumWait};
+            }
+        };
+
+        public AdaptiveWaitStrategy(long minimumWait,
+                                    long maximumWait,
+                                    double decreaseFactor,
+                                    long increment,
+                                    double increaseFactor) {
+            Preconditions.checkArgument(minimumWait >= 0L, "minimumWait must be >= 0 but is %d", minimumWait);
+            Preconditions.checkArgument(maximumWait >= minimumWait, "maximumWait must be >= minimumWait but is %d", maximumWait);
+            Preconditions.checkArgument(decreaseFactor > 0D && decreaseFactor <= 1D, "decreaseFactor must be in (0, 1] but is %s", decreaseFactor);
+            Preconditions.checkArgument(increment >= 0L, "increment must be >= 0 but is %d", increment);
+            Preconditions.checkArgument(increaseFactor >= 1D, "increaseFactor must be >= 1 but is %s", increaseFactor);
+            Preconditions.checkArgument(increment > 0L || increaseFactor > 1D, "Wait time must be able to increase");
+            this.minimumWait = minimumWait;
+            this.maximumWait = maximumWait;
+            this.decreaseFactor = decreaseFactor;
+            this.increment = increment;
+            this.increaseFactor = increaseFactor;
+        }
+
+        @Override
+        public long computeWaitTime(Attempt failedAttempt) {
+            DetailedAttempt attempt = DefaultAttempt.detailsOf(failedAttempt);
+            long[] currentWait = attempt.getPollingLocal(this.currentWait);
+            long waitTime = currentWait[0];
+            double next;
+            if (attempt.madeProgress()) {
+                next = waitTime * decreaseFactor;
+            } else {
+                // grows from 1 millisecond at least, so a zero minimum wait doesn't stick
+                next = Math.max(waitTime, 1L) * increaseFactor + increment;
+            }
+            currentWait[0] = (long) Math.min(Math.max(next, minimumWait), maximumWait);
+            return currentWait[0];
+        }
+    }
+
+    private static final class HintedWaitStrategy implements WaitStrategy {
+        private final WaitStrategy fallbackStrategy;
+        private final long minimumWait;
+        private final long maximumWait;
+
+        public HintedWaitStrategy(WaitStrategy fallbackStrategy, long minimumWait, long maximumWait) {
+            Preconditions.checkArgument(minimumWait >= 0L, "minimumWait must be >= 0 but is %d", minimumWait);
+            Preconditions.checkArgument(maximumWait >= minimumWait, "maximumWait must be >= minimumWait but is %d", maximumWait);
+            this.fallbackStrategy = fallbackStrategy;
+            this.minimumWait = minimumWait;
+            this.maximumWait = maximumWait;
+        }
+
+        @Override
+        public long computeWaitTime(Attempt failedAttempt) {
+            DetailedAttempt attempt = DefaultAttempt.detailsOf(failedAttempt);
+            if (!attempt.hasWaitHint()) {
+                return fallbackStrategy.computeWaitTime(failedAttempt);
+            }
+            return Math.min(Math.max(attempt.getWaitHint(), minimumWait), maximumWait);
+        }
+    }
+
+    private static final class AtLeastHintedWaitStrategy implements WaitStrategy {
+        private final WaitStrategy waitStrategy;
+
+        public AtLeastHintedWaitStrategy(WaitStrategy waitStrategy) {
+            this.waitStrategy = waitStrategy;
+        }
+
+        @Override
+        public long computeWaitTime(Attempt failedAttempt) {
+            long waitTime = waitStrategy.computeWaitTime(failedAttempt);
+            DetailedAttempt attempt = DefaultAttempt.detailsOf(failedAttempt);
+            return attempt.hasWaitHint() ? Math.max(waitTime, attempt.getWaitHint()) : waitTime;
+        }
+    }
+
+    private static final class EtaWaitStrategy implements WaitStrategy {
+        private final long minimumWait;
+        private final long maximumWait;
+
+        private final PollingLocal<FirstReport> firstReport = new PollingLocal<FirstReport>() {
+            @Override
+            protected FirstReport initialValue() {
+                return new FirstReport();
+            }
+        };
+
+        public EtaWaitStrategy(long minimumWait, long maximumWait) {
+            Preconditions.checkArgument(minimumWait >= 0L, "minimumWait must be >= 0 but is %d", minimumWait);
+            Preconditions.checkArgument(maximumWait >= minimumWait, "maximumWait must be >= minimumWait but is %d", maximumWait);
+            this.minimumWait = minimumWait;
+            this.maximumWait = maximumWait;
+        }
+
+        @Override
+        public long computeWaitTime(Attempt failedAttempt) {
+            DetailedAttempt attempt = DefaultAttempt.detailsOf(failedAttempt);
+            if (!attempt.hasReportedProgress()) {
+                return minimumWait;
+            }
+
+            double progress = attempt.getReportedProgress();
+            long time = attempt.getDelaySinceFirstAttempt();
+            FirstReport first = attempt.getPollingLocal(firstReport);
+            if (first.time < 0L) {
+                first.time = time;
+                first.progress = progress;
+                return minimumWait;
+            }
+
+            long elapsed = time - first.time;
+            if (progress <= first.progress || elapsed <= 0L) {
+                return clamp(elapsed);
+            }
+
+            double rate = (progress - first.progress) / elapsed;
+            return clamp((long) Math.ceil((1D - progress) / rate));
+        }
+
+        private long clamp(long waitTime) {
+            return Math.min(Math.max(waitTime, minimumWait), maximumWait);
+        }
+    }
+
+    /**
+     * The first progress report of a polling.
+     */
+    private static final class FirstReport {
+        private long time = -1L;
+        private double progress;
+    }
+
+    private static final class LatencyProportionalWaitStrategy implements WaitStrategy {
+        private final double multiplier;
+        private final long minimumWait;
+        private final long maximumWait;
+
+        public LatencyProportionalWaitStrategy(double multiplier, long minimumWait, long maximumWait) {
+            Preconditions.checkArgument(multiplier > 0D, "multiplier must be > 0 but is %s", multiplier);
+            Preconditions.checkArgument(minimumWait >= 0L, "minimumWait must be >= 0 but is %d", minimumWait);
+            Preconditions.checkArgument(maximumWait >= minimumWait, "maximumWait must be >= minimumWait but is %d", maximumWait);
+            this.multiplier = multiplier;
+            this.minimumWait = minimumWait;
+            this.maximumWait = maximumWait;
+        }
+
+        @Override
+        public long computeWaitTime(Attempt failedAttempt) {
+            long latency = DefaultAttempt.detailsOf(failedAttempt).getAverageLatency();
+            if (latency < 0L) {
+                return minimumWait;
+            }
+            double waitTime = latency * multiplier;
+            return (long) Math.min(Math.max(waitTime, minimumWait), maximumWait);
+        }
+    }
+
     private static final class CompositeWaitStrategy implements WaitStrategy {
         private final List<WaitStrategy> waitStrategies;
 
@@ -387,4 +709,39 @@ public final class WaitStrategies {
             return 0L;
         }
     }
+
+    private static final class ExceptionRouterWaitStrategy implements WaitStrategy {
+        private final WaitStrategy fallbackStrategy;
+        private final ClassValue<ExceptionWaitHandler<?>> dispatchTable;
+
+        public ExceptionRouterWaitStrategy(final Map<Class<? extends Throwable>, ExceptionWaitHandler<?>> handlers,
+                                           WaitStrategy fallbackStrategy) {
+            this.fallbackStrategy = fallbackStrategy;
+            this.dispatchTable = new ClassValue<ExceptionWaitHandler<?>>() {
+                @Override
+                protected ExceptionWaitHandler<?> computeValue(Class<?> type) {
+                    for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                        ExceptionWaitHandler<?> handler = handlers.get(current);
+                        if (handler != null) {
+                            return handler;
+                        }
+                    }
+                    return null;
+                }
+            };
+        }
+
+        @SuppressWarnings({"ThrowableResultOfMethodCallIgnored", "unchecked"})
+        @Override
+        public long computeWaitTime(Attempt failedAttempt) {
+            if (failedAttempt.hasException()) {
+                Throwable cause = failedAttempt.getExceptionCause();
+                ExceptionWaitHandler<Throwable> handler = (ExceptionWaitHandler<Throwable>) dispatchTable.get(cause.getClass());
+                if (handler != null) {
+                    return handler.computeWaitTime(cause);
+                }
+            }
+            return fallbackStrategy.computeWaitTime(failedAttempt);
+        }
+    }
 }
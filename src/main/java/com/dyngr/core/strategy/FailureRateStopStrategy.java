@@ -0,0 +1,161 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dyngr.core.strategy;
+
+import com.dyngr.core.Attempt;
+import com.dyngr.core.DefaultAttempt;
+import com.dyngr.core.PollingLocal;
+import com.dyngr.core.StopStrategy;
+import com.dyngr.util.Preconditions;
+
+/**
+ * A stop strategy that stops when the ratio of attempts with an exception, among the recent ones, reaches a threshold,
+ * so that a flaky backend is tolerated but one that is down is not.
+ * <p>
+ * Recent attempts are counted in a ring of slots, each holding the number of attempts and failures in it. Without
+ * a time limit, every attempt has its own slot and recent attempts are exactly the last <code>windowSize</code>
+ * ones. With a time limit, <code>windowTime</code> is cut into ten slots, so recent attempts are
+ * those within <code>windowTime</code> to a precision of one slot, and the oldest slots are dropped while the
+ * others still hold <code>windowSize</code> attempts. Either way an attempt updates a fixed number of slots, so the
+ * cost per attempt is constant. No decision is made before <code>minAttempts</code> recent attempts.
+ * <p>
+ * The slots are a {@link PollingLocal} kept by the poller for every polling, so the strategy can be shared by
+ * pollers.
+ *
+ * @author dingye
+ */
+public class FailureRateStopStrategy implements StopStrategy {
+    /**
+     * number of slots a time window is cut into
+     */
+    private static final int TIME_SLOTS = 10;
+
+    private final double threshold;
+    private final int windowSize;
+    private final int minAttempts;
+    private final int slotCount;
+
+    /**
+     * width of a slot in milliseconds, or <code>0</code> if every attempt has its own slot
+     */
+    private final long slotWidth;
+
+    private final PollingLocal<Window> window = new PollingLocal<Window>() {
+        @Override
+        protected Window initialValue() {
+            return new Window(slotCount);
+        }
+    };
+
+    /**
+     * @param threshold   ratio of attempts with an exception to stop at, in (0, 1]
+     * @param windowSize  the maximum number of recent attempts
+     * @param windowTime  the maximum age of recent attempts, in milliseconds, or {@link Long#MAX_VALUE} for no limit
+     * @param minAttempts the minimum number of recent attempts to decide on
+     */
+    public FailureRateStopStrategy(double threshold, int windowSize, long windowTime, int minAttempts) {
+        Preconditions.checkArgument(threshold > 0D && threshold <= 1D, "threshold must be in (0, 1] but is %s", threshold);
+        Preconditions.checkArgument(windowSize > 0, "windowSize must be > 0 but is %s", windowSize);
+        Preconditions.checkArgument(windowTime > 0L, "windowTime must be > 0 but is %s", windowTime);
+        Preconditions.checkArgument(minAttempts > 0 && minAttempts <= windowSize,
+                "minAttempts must be in [1, windowSize] but is %s", minAttempts);
+        this.threshold = threshold;
+        this.windowSize = windowSize;
+        this.minAttempts = minAttempts;
+        if (windowTime == Long.MAX_VALUE) {
+            this.slotCount = windowSize;
+            this.slotWidth = 0L;
+        } else {
+            this.slotCount = TIME_SLOTS;
+            this.slotWidth = windowTime / TIME_SLOTS + (windowTime % TIME_SLOTS == 0L ? 0L : 1L);
+        }
+    }
+
+    @Override
+    public boolean shouldStop(Attempt failedAttempt) {
+        Window recent = DefaultAttempt.detailsOf(failedAttempt).getPollingLocal(window);
+        if (slotWidth == 0L) {
+            recent.add(recent.currentSlot + 1L, failedAttempt.hasException());
+        } else {
+            recent.add(failedAttempt.getDelaySinceFirstAttempt() / slotWidth, failedAttempt.hasException());
+            recent.trim(windowSize);
+        }
+        return recent.attemptCount >= minAttempts && recent.failureCount >= threshold * recent.attemptCount;
+    }
+
+    /**
+     * Counts of recent attempts of a polling.
+     */
+    private static final class Window {
+        private final int[] attempts;
+        private final int[] failures;
+        private long currentSlot = -1L;
+        private int attemptCount;
+        private int failureCount;
+
+        Window(int slotCount) {
+            this.attempts = new int[slotCount];
+            this.failures = new int[slotCount];
+        }
+
+        /**
+         * Adds an attempt to given slot, clearing the slots passed since the current one. An attempt before the
+         * current slot, e.g. after the clock is set back, is added to the current slot.
+         */
+        void add(long slot, boolean failed) {
+            if (slot > currentSlot) {
+                long cleared = Math.min(slot - currentSlot, attempts.length);
+                for (long s = slot - cleared + 1L; s <= slot; s++) {
+                    clear(index(s));
+                }
+                currentSlot = slot;
+            }
+            int index = index(currentSlot);
+            attempts[index]++;
+            attemptCount++;
+            if (failed) {
+                failures[index]++;
+                failureCount++;
+            }
+        }
+
+        /**
+         * Drops the oldest slots while the others still hold given number of attempts.
+         */
+        void trim(int size) {
+            for (long s = Math.max(currentSlot - attempts.length + 1L, 0L); s < currentSlot; s++) {
+                int index = index(s);
+                if (attemptCount - attempts[index] < size) {
+                    break;
+                }
+                clear(index);
+            }
+        }
+
+        private void clear(int index) {
+            attemptCount -= attempts[index];
+            failureCount -= failures[index];
+            attempts[index] = 0;
+            failures[index] = 0;
+        }
+
+        private int index(long slot) {
+            return (int) ((slot % attempts.length + attempts.length) % attempts.length);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2012-2015 Ye Ding
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dyngr.exception;
+
+/**
+ * An exception which implies a polled value is older than allowed, as it has failed to be refreshed.
+ *
+ * @author dingye
+ */
+public class StaleValueException extends PollerException {
+    public StaleValueException() {
+    }
+
+    public StaleValueException(String message) {
+        super(message);
+    }
+
+    public StaleValueException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public StaleValueException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,136 @@
+package com.dyngr.core;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.dyngr.ListenablePoller;
+import com.dyngr.PollerBuilder;
+import com.dyngr.Polling;
+import com.dyngr.concurrent.ListenableFuture;
+import com.dyngr.core.maker.CounterAttemptMaker;
+import com.dyngr.core.maker.TryFixedTimesAttemptMaker;
+import com.dyngr.exception.PollerStoppedException;
+import com.dyngr.exception.UserBreakException;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class AnyOfPollerTest {
+    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+
+    @AfterClass
+    public static void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testAnyOf_first_finished_wins() throws Exception {
+        // prepare
+        CounterAttemptMaker slowMaker = new CounterAttemptMaker();
+        ListenablePoller<String> slow = PollerBuilder.<String>newBuilder()
+                .withScheduler(scheduler)
+                .withWaitStrategy(WaitStrategies.fixedWait(1, TimeUnit.HOURS))
+                .polling(asString(slowMaker))
+                .buildListenable();
+        ListenablePoller<String> fast = PollerBuilder.<String>newBuilder()
+                .withScheduler(scheduler)
+                .withWaitStrategy(WaitStrategies.fixedWait(10, TimeUnit.MILLISECONDS))
+                .polling(new AttemptMaker<String>() {
+                    private int count;
+
+                    @Override
+                    public AttemptResult<String> process() {
+                        return ++count < 3 ? AttemptResults.<String>justContinue() : AttemptResults.finishWith("fast");
+                    }
+                })
+                .buildListenable();
+
+        // verify
+        long startTime = System.currentTimeMillis();
+        assertThat(Polling.anyOf(slow, fast).start().get(5, TimeUnit.SECONDS)).isEqualTo("fast");
+        assertThat(System.currentTimeMillis() - startTime).isLessThan(1000L);
+        assertThat(slowMaker.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testAnyOf_cancels_waiting_pollers() throws Exception {
+        // prepare
+        ListenablePoller<Void> waiting = PollerBuilder.<Void>newBuilder()
+                .withScheduler(scheduler)
+                .withWaitStrategy(WaitStrategies.fixedWait(1, TimeUnit.HOURS))
+                .polling(new CounterAttemptMaker())
+                .buildListenable();
+        ListenablePoller<Void> finished = PollerBuilder.<Void>newBuilder()
+                .withScheduler(scheduler)
+                .polling(new TryFixedTimesAttemptMaker(0))
+                .buildListenable();
+
+        ListenableFuture<Void> waitingFuture = waiting.start();
+        Thread.sleep(50);
+        Polling.anyOf(new FixedFuturePoller<Void>(waitingFuture), finished).start().get(5, TimeUnit.SECONDS);
+
+        // verify
+        assertThat(waitingFuture.isCancelled()).isTrue();
+    }
+
+    @Test
+    public void testAnyOf_all_stopped() throws Exception {
+        // prepare
+        ListenablePoller<Void> stopped = PollerBuilder.<Void>newBuilder()
+                .withScheduler(scheduler)
+                .withStopStrategy(StopStrategies.stopAfterAttempt(2))
+                .polling(new CounterAttemptMaker())
+                .buildListenable();
+        ListenablePoller<Void> broken = PollerBuilder.<Void>newBuilder()
+                .withScheduler(scheduler)
+                .polling(new AttemptMaker<Void>() {
+                    @Override
+                    public AttemptResult<Void> process() {
+                        return AttemptResults.breakFor("oops!");
+                    }
+                })
+                .buildListenable();
+
+        // verify
+        try {
+            Polling.anyOf(stopped, broken).start().get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(PollerStoppedException.class);
+            assertThat(e.getCause().getMessage()).contains("2 pollers");
+            Throwable other = e.getCause().getSuppressed()[0];
+            assertThat(e.getCause().getCause()).isNotSameAs(other);
+            assertThat(e.getCause().getCause() instanceof UserBreakException || other instanceof UserBreakException).isTrue();
+        }
+    }
+
+    private static AttemptMaker<String> asString(final AttemptMaker<Void> maker) {
+        return new AttemptMaker<String>() {
+            @Override
+            public AttemptResult<String> process() throws Exception {
+                maker.process();
+                return AttemptResults.justContinue();
+            }
+        };
+    }
+
+    /**
+     * A poller returning an already started future.
+     */
+    private static class FixedFuturePoller<V> implements ListenablePoller<V> {
+        private final ListenableFuture<V> future;
+
+        FixedFuturePoller(ListenableFuture<V> future) {
+            this.future = future;
+        }
+
+        @Override
+        public ListenableFuture<V> start() {
+            return future;
+        }
+    }
+}
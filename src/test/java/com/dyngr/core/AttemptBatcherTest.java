@@ -0,0 +1,98 @@
+package com.dyngr.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dyngr.Polling;
+import com.dyngr.PollingTemplate;
+import com.dyngr.concurrent.ListenableFuture;
+import com.dyngr.exception.PollerStoppedException;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class AttemptBatcherTest {
+    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+
+    @AfterClass
+    public static void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testBatcher_routes_results_to_pollings() throws Exception {
+        // prepare
+        final Map<Integer, AtomicInteger> polled = new ConcurrentHashMap<Integer, AtomicInteger>();
+        final AtomicInteger maxBatchSize = new AtomicInteger();
+        AttemptBatcher<Integer, String> batcher = new AttemptBatcher<Integer, String>(
+                new BatchAttemptMaker<Integer, String>() {
+                    @Override
+                    public Map<Integer, AttemptResult<String>> process(Set<Integer> keys) {
+                        synchronized (maxBatchSize) {
+                            maxBatchSize.set(Math.max(maxBatchSize.get(), keys.size()));
+                        }
+                        Map<Integer, AttemptResult<String>> results = new HashMap<Integer, AttemptResult<String>>();
+                        for (Integer key : keys) {
+                            if (polled.get(key).incrementAndGet() == 3) {
+                                results.put(key, AttemptResults.finishWith("job " + key));
+                            }
+                        }
+                        return results;
+                    }
+                }, 10, TimeUnit.MILLISECONDS, 500, scheduler);
+
+        PollingTemplate template = Polling.waitPeriodly(20, TimeUnit.MILLISECONDS).stopAfterAttempt(5).template();
+        List<ListenableFuture<String>> futures = new ArrayList<ListenableFuture<String>>();
+        for (int i = 0; i < 1200; i++) {
+            polled.put(i, new AtomicInteger());
+            futures.add(template.schedule(i, batcher));
+        }
+
+        // verify
+        for (int i = 0; i < 1200; i++) {
+            assertThat(futures.get(i).get(5, TimeUnit.SECONDS)).isEqualTo("job " + i);
+            assertThat(polled.get(i).get()).isEqualTo(3);
+        }
+        assertThat(maxBatchSize.get()).isEqualTo(500);
+        assertThat(batcher.getBatchCount()).isLessThan(30L);
+    }
+
+    @Test
+    public void testBatcher_failed_bulk_call() throws Exception {
+        // prepare
+        AttemptBatcher<String, String> batcher = new AttemptBatcher<String, String>(
+                new BatchAttemptMaker<String, String>() {
+                    @Override
+                    public Map<String, AttemptResult<String>> process(Set<String> keys) {
+                        throw new IllegalStateException("unavailable");
+                    }
+                }, 1, TimeUnit.HOURS, 2, scheduler);
+
+        // the second key fills the batch, which is flushed at once
+        ListenableFuture<String> a = Polling.stopAfterAttempt(1).template().schedule("a", batcher);
+        ListenableFuture<String> b = Polling.stopAfterAttempt(1).template().schedule("b", batcher);
+
+        // verify
+        for (ListenableFuture<String> future : new ListenableFuture[]{a, b}) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(PollerStoppedException.class);
+                assertThat(e.getCause().getCause()).hasMessage("unavailable");
+            }
+        }
+        assertThat(batcher.getBatchCount()).isEqualTo(1L);
+    }
+}
@@ -0,0 +1,98 @@
+package com.dyngr.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.dyngr.Polling;
+import com.dyngr.core.maker.CounterAttemptMaker;
+import com.dyngr.exception.PollerStoppedException;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class BulkPollingTest {
+
+    @Test
+    public void testRunAll_results_in_order() throws Exception {
+        // prepare
+        List<AttemptMaker<Integer>> makers = new ArrayList<AttemptMaker<Integer>>();
+        for (int i = 0; i < 1000; i++) {
+            makers.add(new FinishAfterAttemptMaker(i, i % 5 + 1));
+        }
+
+        BulkPollingFuture<Integer> future = Polling.runAll(makers,
+                Polling.waitPeriodly(10, TimeUnit.MILLISECONDS).stopAfterAttempt(10), 4);
+
+        // verify
+        List<Integer> results = future.get(10, TimeUnit.SECONDS);
+        assertThat(results).hasSize(1000);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(results.get(i)).isEqualTo(i);
+            assertThat(future.getResult(i)).isEqualTo(i);
+        }
+        assertThat(future.getFinishedCount()).isEqualTo(1000);
+        assertThat(future.getFailedCount()).isEqualTo(0);
+        assertThat(future.getPendingCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testRunAll_fail_fast() throws Exception {
+        // prepare
+        List<AttemptMaker<Integer>> makers = new ArrayList<AttemptMaker<Integer>>();
+        makers.add(new FinishAfterAttemptMaker(0, 1000));
+        makers.add(new FinishAfterAttemptMaker(1, 1000));
+
+        BulkPollingFuture<Integer> future = Polling.runAll(makers,
+                Polling.waitPeriodly(1, TimeUnit.MILLISECONDS).stopAfterAttempt(3), 1);
+
+        // verify
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(PollerStoppedException.class);
+        }
+    }
+
+    @Test
+    public void testRunAll_collect_failures() throws Exception {
+        // prepare
+        List<AttemptMaker<?>> makers = new ArrayList<AttemptMaker<?>>();
+        makers.add(new FinishAfterAttemptMaker(0, 1));
+        makers.add(new CounterAttemptMaker());
+        makers.add(new FinishAfterAttemptMaker(2, 2));
+
+        BulkPollingFuture<Object> future = Polling.runAll(makers,
+                Polling.waitPeriodly(1, TimeUnit.MILLISECONDS).stopAfterAttempt(3), 2, false);
+
+        // verify
+        List<Object> results = future.get(10, TimeUnit.SECONDS);
+        assertThat(results).containsExactly(0, null, 2);
+        assertThat(future.getFailure(1)).isInstanceOf(PollerStoppedException.class);
+        assertThat(future.getFailure(0)).isNull();
+        assertThat(future.getFinishedCount()).isEqualTo(2);
+        assertThat(future.getFailedCount()).isEqualTo(1);
+    }
+
+    private static class FinishAfterAttemptMaker implements AttemptMaker<Integer> {
+        private final int result;
+        private final int attempts;
+        private int count;
+
+        FinishAfterAttemptMaker(int result, int attempts) {
+            this.result = result;
+            this.attempts = attempts;
+        }
+
+        @Override
+        public AttemptResult<Integer> process() {
+            if (++count < attempts) {
+                return AttemptResults.justContinue();
+            }
+            return AttemptResults.finishWith(result);
+        }
+    }
+}
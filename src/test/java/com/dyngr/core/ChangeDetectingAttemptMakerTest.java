@@ -0,0 +1,116 @@
+package com.dyngr.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.dyngr.exception.PollerStoppedException;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class ChangeDetectingAttemptMakerTest {
+
+    @Test
+    public void testChangeDetecting_delivers_only_changes() {
+        // prepare
+        final String[] payloads = {"a", "a", "b", "b", "b", "a"};
+        final List<String> changes = new ArrayList<String>();
+        final List<Boolean> progresses = new ArrayList<Boolean>();
+        ChangeDetectingAttemptMaker<String> maker = new ChangeDetectingAttemptMaker<String>(new AttemptMaker<String>() {
+            private int count;
+
+            @Override
+            public AttemptResult<String> process() {
+                return AttemptResults.finishWith(payloads[count++]);
+            }
+        }, Fingerprints.strings(), new ChangeListener<String>() {
+            @Override
+            public void onChange(String value) {
+                changes.add(value);
+            }
+        });
+
+        PollingLoop<String> loop = new PollingLoop<String>(maker, StopStrategies.stopAfterAttempt(payloads.length),
+                new WaitStrategy() {
+                    @Override
+                    public long computeWaitTime(Attempt failedAttempt) {
+                        progresses.add(DefaultAttempt.detailsOf(failedAttempt).madeProgress());
+                        return 0L;
+                    }
+                });
+
+        try {
+            loop.run();
+            fail();
+        } catch (PollerStoppedException e) {
+            // verify
+            assertThat(changes).containsExactly("a", "b", "a");
+            assertThat(progresses).containsExactly(true, false, true, false, false);
+            assertThat(maker.getChangeCount()).isEqualTo(3);
+            assertThat(maker.getUnchangedCount()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    public void testChangeDetecting_passes_other_results() throws Exception {
+        // prepare
+        final List<AttemptResult<String>> results = new ArrayList<AttemptResult<String>>();
+        results.add(AttemptResults.<String>justContinue());
+        results.add(AttemptResults.<String>drainWith("page"));
+        results.add(AttemptResults.<String>drainWith("page"));
+        results.add(AttemptResults.<String>breakFor("gone"));
+        ChangeDetectingAttemptMaker<String> maker = new ChangeDetectingAttemptMaker<String>(new AttemptMaker<String>() {
+            private int count;
+
+            @Override
+            public AttemptResult<String> process() {
+                return results.get(count++);
+            }
+        }, Fingerprints.<String>hashCodes(), new ChangeListener<String>() {
+            @Override
+            public void onChange(String value) {
+            }
+        });
+
+        // verify
+        assertThat(maker.process()).isSameAs(results.get(0));
+        assertThat(maker.process().getState()).isEqualTo(AttemptState.DRAIN);
+        assertThat(maker.process().getState()).isEqualTo(AttemptState.CONTINUE);
+        assertThat(maker.process()).isSameAs(results.get(3));
+    }
+
+    @Test
+    public void testChangeDetecting_keeps_hints() throws Exception {
+        // prepare
+        ChangeDetectingAttemptMaker<String> maker = new ChangeDetectingAttemptMaker<String>(new AttemptMaker<String>() {
+            @Override
+            public AttemptResult<String> process() {
+                return AttemptResults.finishWith("a").withWaitHint(5L, TimeUnit.SECONDS).withReportedProgress(0.3D);
+            }
+        }, Fingerprints.strings(), new ChangeListener<String>() {
+            @Override
+            public void onChange(String value) {
+            }
+        });
+
+        // verify
+        AttemptResult<String> changed = maker.process();
+        assertThat(changed.madeProgress()).isTrue();
+        assertThat(changed.getWaitHint()).isEqualTo(5000L);
+        assertThat(changed.getReportedProgress()).isEqualTo(0.3D);
+
+        AttemptResult<String> unchanged = maker.process();
+        assertThat(unchanged.madeProgress()).isFalse();
+        assertThat(unchanged.getWaitHint()).isEqualTo(5000L);
+        assertThat(unchanged.getReportedProgress()).isEqualTo(0.3D);
+    }
+
+    @Test
+    public void testFingerprints_hash() {
+        assertThat(Fingerprints.hash(new byte[0])).isEqualTo(0xcbf29ce484222325L);
+        assertThat(Fingerprints.hash("a".getBytes())).isEqualTo(0xaf63dc4c8601ec8cL);
+        assertThat(Fingerprints.bytes().of(new byte[]{1, 2})).isNotEqualTo(Fingerprints.bytes().of(new byte[]{2, 1}));
+    }
+}
@@ -0,0 +1,109 @@
+package com.dyngr.core;
+
+import java.util.concurrent.TimeUnit;
+
+import com.dyngr.Polling;
+import com.dyngr.exception.UserBreakException;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class CompletionTimeModelTest {
+
+    @Test
+    public void testQuantileSketch_relative_accuracy() {
+        // prepare
+        QuantileSketch sketch = new QuantileSketch(0.01D, TimeUnit.HOURS.toMillis(1L));
+        for (long i = 1; i <= 100000; i++) {
+            sketch.add(i);
+        }
+        sketch.add(TimeUnit.DAYS.toMillis(1L));
+
+        // verify
+        assertThat(sketch.getCount()).isEqualTo(100001L);
+        assertThat((double) sketch.quantile(0.5D)).isCloseTo(50000D, within(500D));
+        assertThat((double) sketch.quantile(0.99D)).isCloseTo(99000D, within(990D));
+        assertThat(sketch.quantile(1D)).isLessThanOrEqualTo(TimeUnit.HOURS.toMillis(1L) * 101 / 100);
+        assertThat(sketch.rank(50000L)).isCloseTo(0.5D, within(0.01D));
+        assertThat(new QuantileSketch(0.01D, 1000L).quantile(0.5D)).isEqualTo(-1L);
+    }
+
+    @Test
+    public void testWaitStrategy_waits_until_likely_completion() {
+        // prepare
+        CompletionTimeModel<String> model = new CompletionTimeModel<String>(0.01D, 1L, TimeUnit.HOURS);
+        WaitStrategy waitStrategy = model.waitStrategy("snapshot", 0.5D, 0.1D,
+                WaitStrategies.fixedWait(7L, TimeUnit.SECONDS));
+
+        // verify
+        assertThat(waitStrategy.computeWaitTime(attempt(1, 0L))).isEqualTo(7000L);
+
+        for (long i = 1; i <= 100; i++) {
+            model.record("snapshot", i * 1000L);
+        }
+        assertThat((double) waitStrategy.computeWaitTime(attempt(1, 0L))).isCloseTo(50000D, within(500D));
+        assertThat((double) waitStrategy.computeWaitTime(attempt(2, 50000L))).isCloseTo(10000D, within(1200D));
+        assertThat(waitStrategy.computeWaitTime(attempt(3, 150000L))).isEqualTo(7000L);
+        assertThat(model.getSketch("other")).isNull();
+    }
+
+    @Test
+    public void testTrack_records_completion_time() {
+        // prepare
+        CompletionTimeModel<String> model = new CompletionTimeModel<String>(0.01D, 1L, TimeUnit.HOURS);
+
+        Polling.waitPeriodly(20L, TimeUnit.MILLISECONDS).run(model.track("job", new AttemptMaker<Void>() {
+            private int count;
+
+            @Override
+            public AttemptResult<Void> process() {
+                return count++ < 3 ? AttemptResults.<Void>justContinue() : AttemptResults.justFinish();
+            }
+        }));
+
+        // verify
+        assertThat(model.getSketch("job").getCount()).isEqualTo(1L);
+        assertThat(model.getSketch("job").quantile(0.5D)).isBetween(55L, 1000L);
+    }
+
+    @Test
+    public void testTrack_reused_by_pollings() throws Exception {
+        // prepare
+        CompletionTimeModel<String> model = new CompletionTimeModel<String>(0.01D, 1L, TimeUnit.HOURS);
+        AttemptMaker<Void> maker = model.track("job", new AttemptMaker<Void>() {
+            private int count;
+
+            @Override
+            public AttemptResult<Void> process() {
+                switch (count++ % 3) {
+                    case 0:
+                        return AttemptResults.justContinue();
+                    case 1:
+                        return AttemptResults.justFinish();
+                    default:
+                        return AttemptResults.breakFor("broken");
+                }
+            }
+        });
+
+        Polling.waitPeriodly(20L, TimeUnit.MILLISECONDS).run(maker);
+        Thread.sleep(200L);
+        try {
+            // breaks at once
+            Polling.waitPeriodly(20L, TimeUnit.MILLISECONDS).run(maker);
+        } catch (UserBreakException e) {
+            // expected
+        }
+        Thread.sleep(200L);
+        Polling.waitPeriodly(20L, TimeUnit.MILLISECONDS).run(maker);
+
+        // verify
+        assertThat(model.getSketch("job").getCount()).isEqualTo(2L);
+        assertThat(model.getSketch("job").quantile(1D)).isBetween(15L, 150L);
+    }
+
+    private static Attempt attempt(long attemptNumber, long delaySinceFirstAttempt) {
+        return new DefaultAttempt(attemptNumber, 0L, delaySinceFirstAttempt, null);
+    }
+}
@@ -1,16 +1,22 @@
 package com.dyngr.core;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.dyngr.Poller;
 import com.dyngr.PollerBuilder;
 import com.dyngr.Polling;
+import com.dyngr.PollingTemplate;
 import com.dyngr.core.maker.CounterAttemptMaker;
 import com.dyngr.core.maker.TimerAttemptMaker;
 import com.dyngr.core.maker.TryFixedTimesAttemptMaker;
@@ -367,4 +373,494 @@ public class DefaultPollerTest {
         // verify
         assertThat(result).isEqualTo("world");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPollingTemplate_reusable() {
+        PollingTemplate template = Polling
+                .stopAfterAttempt(3)
+                .template();
+
+        // verify
+        for (int i = 0; i < 3; i++) {
+            TryFixedTimesAttemptMaker maker = new TryFixedTimesAttemptMaker(2);
+            template.run(maker);
+            assertThat(maker.getTriedNum()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    public void testPollingTemplate_runs_on_current_thread() {
+        final AtomicLong runningThreadId = new AtomicLong();
+
+        PollingTemplate template = Polling
+                .waitPeriodly(10, TimeUnit.MILLISECONDS)
+                .template();
+        String result = template.run(new AttemptMaker<String>() {
+            @Override
+            public AttemptResult<String> process() {
+                runningThreadId.set(Thread.currentThread().getId());
+                return AttemptResults.finishWith("hello");
+            }
+        });
+
+        // verify
+        assertThat(result).isEqualTo("hello");
+        assertThat(runningThreadId.get()).isEqualTo(Thread.currentThread().getId());
+    }
+
+    @Test
+    public void testPollingTemplate_stopped() {
+        PollingTemplate template = Polling
+                .stopAfterAttempt(3)
+                .template();
+
+        // verify
+        CounterAttemptMaker maker = new CounterAttemptMaker();
+        try {
+            template.run(maker);
+            fail();
+        } catch (PollerStoppedException e) {
+            assertThat(maker.getCount()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    public void testPrimitiveAttemptMaker() {
+        PollingTemplate template = Polling
+                .stopAfterAttempt(3)
+                .template();
+
+        // verify
+        long offset = template.runLong(new LongAttemptMaker() {
+            private long count;
+
+            @Override
+            public LongAttemptResult process() {
+                return ++count < 2 ? LongAttemptResult.justContinue() : LongAttemptResult.finishWith(1L << 40);
+            }
+        });
+        assertThat(offset).isEqualTo(1L << 40);
+
+        int count = template.runInt(new IntAttemptMaker() {
+            @Override
+            public IntAttemptResult process() {
+                return IntAttemptResult.finishWith(7);
+            }
+        });
+        assertThat(count).isEqualTo(7);
+
+        boolean ready = Polling.stopAfterAttempt(3).runBoolean(new BooleanAttemptMaker() {
+            @Override
+            public BooleanAttemptResult process() {
+                return BooleanAttemptResult.finishWith(true);
+            }
+        });
+        assertThat(ready).isTrue();
+    }
+
+    @Test
+    public void testPrimitiveAttemptMaker_as_generic() throws Exception {
+        Poller<Long> poller = PollerBuilder.<Long>newBuilder()
+                .polling(new LongAttemptMaker() {
+                    @Override
+                    public LongAttemptResult process() {
+                        return LongAttemptResult.finishWith(42L);
+                    }
+                })
+                .build();
+
+        // verify
+        assertThat(poller.start().get()).isEqualTo(42L);
+    }
+
+    @Test
+    public void testPrimitiveAttemptMaker_user_break() {
+        try {
+            Polling.stopAfterAttempt(3).runInt(new IntAttemptMaker() {
+                @Override
+                public IntAttemptResult process() {
+                    return IntAttemptResult.breakFor("oops!");
+                }
+            });
+            fail();
+        } catch (UserBreakException e) {
+            assertThat(e).hasMessage("oops!");
+        }
+    }
+
+    @Test
+    public void testScheduledPoller() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            TimerAttemptMaker maker = new TimerAttemptMaker();
+            Poller<Void> poller = PollerBuilder.<Void>newBuilder()
+                    .withScheduler(scheduler)
+                    .withWaitStrategy(WaitStrategies.fixedWait(200, TimeUnit.MILLISECONDS))
+                    .polling(maker)
+                    .build();
+
+            // verify
+            poller.start().get();
+            assertThat(maker.getElapsedTime()).isGreaterThanOrEqualTo(200);
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testScheduledPoller_cancel_while_waiting() throws Exception {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+        scheduler.setRemoveOnCancelPolicy(true);
+        try {
+            CounterAttemptMaker maker = new CounterAttemptMaker();
+            Poller<Void> poller = PollerBuilder.<Void>newBuilder()
+                    .withScheduler(scheduler)
+                    .withWaitStrategy(WaitStrategies.fixedWait(1, TimeUnit.HOURS))
+                    .polling(maker)
+                    .build();
+
+            // verify
+            Future<Void> future = poller.start();
+            Thread.sleep(100);
+            assertThat(future.cancel(true)).isTrue();
+            assertThat(maker.getCount()).isEqualTo(1);
+            assertThat(scheduler.getQueue()).isEmpty();
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testStatefulPolling_threads_state() {
+        // prepare
+        final List<Integer> seenCursors = new ArrayList<Integer>();
+        StatefulPolling<Integer, String> polling = new StatefulPolling<Integer, String>(
+                new StatefulAttemptMaker<Integer, String>() {
+                    @Override
+                    public StatefulAttemptResult<Integer, String> process(Integer cursor) {
+                        seenCursors.add(cursor);
+                        if (cursor == 12 && seenCursors.indexOf(cursor) == seenCursors.size() - 1) {
+                            throw new IllegalStateException("flaky");
+                        }
+                        if (cursor < 14) {
+                            return StatefulAttemptResult.continueWith(cursor + 1);
+                        }
+                        return StatefulAttemptResult.finishWith("done at " + cursor, cursor + 1);
+                    }
+                }, 10);
+
+        String result = Polling.stopAfterAttempt(10).stopIfException(false).run(polling);
+
+        // verify
+        assertThat(result).isEqualTo("done at 14");
+        assertThat(seenCursors).containsExactly(10, 11, 12, 12, 13, 14);
+        assertThat(polling.getState()).isEqualTo(15);
+    }
+
+    @Test
+    public void testStatefulPolling_resume_after_stopped() {
+        // prepare
+        StatefulAttemptMaker<Integer, Void> maker = new StatefulAttemptMaker<Integer, Void>() {
+            @Override
+            public StatefulAttemptResult<Integer, Void> process(Integer cursor) {
+                return StatefulAttemptResult.continueWith(cursor + 1);
+            }
+        };
+        StatefulPolling<Integer, Void> first = new StatefulPolling<Integer, Void>(maker, 0);
+        try {
+            Polling.stopAfterAttempt(3).run(first);
+            fail();
+        } catch (PollerStoppedException e) {
+            // expected
+        }
+        StatefulPolling<Integer, Void> second = new StatefulPolling<Integer, Void>(maker, first.getState());
+        try {
+            Polling.stopAfterAttempt(2).run(second);
+            fail();
+        } catch (PollerStoppedException e) {
+            // expected
+        }
+
+        // verify
+        assertThat(first.getState()).isEqualTo(3);
+        assertThat(second.getState()).isEqualTo(5);
+    }
+
+    @Test
+    public void testDrain_not_counted_nor_waited() {
+        // prepare
+        final AtomicLong drained = new AtomicLong();
+        AttemptMaker<Long> maker = new AttemptMaker<Long>() {
+            private int backlog = 100;
+            private boolean empty;
+
+            @Override
+            public AttemptResult<Long> process() {
+                if (backlog > 0) {
+                    backlog--;
+                    drained.incrementAndGet();
+                    return AttemptResults.drain();
+                }
+                if (!empty) {
+                    empty = true;
+                    return AttemptResults.justContinue();
+                }
+                return AttemptResults.finishWith(drained.get());
+            }
+        };
+
+        long startTime = System.currentTimeMillis();
+        Long result = Polling
+                .waitPeriodly(100, TimeUnit.MILLISECONDS)
+                .stopAfterAttempt(2)
+                .run(maker);
+
+        // verify
+        assertThat(result).isEqualTo(100L);
+        assertThat(System.currentTimeMillis() - startTime).isLessThan(1000L);
+    }
+
+    @Test
+    public void testDrain_stopped_after_delay() {
+        // prepare
+        final AtomicLong drained = new AtomicLong();
+        AttemptMaker<Void> endless = new AttemptMaker<Void>() {
+            @Override
+            public AttemptResult<Void> process() throws Exception {
+                drained.incrementAndGet();
+                Thread.sleep(1);
+                return AttemptResults.drain();
+            }
+        };
+
+        // verify
+        long startTime = System.currentTimeMillis();
+        try {
+            Polling.stopAfterDelay(100, TimeUnit.MILLISECONDS).run(endless);
+            fail();
+        } catch (PollerStoppedException e) {
+            assertThat(System.currentTimeMillis() - startTime).isBetween(100L, 1000L);
+            assertThat(drained.get()).isGreaterThan(1L);
+        }
+    }
+
+    @Test
+    public void testDrain_first_attempt_numbered_from_one() {
+        // prepare
+        final List<Long> attemptNumbers = new ArrayList<Long>();
+        AttemptMaker<Void> maker = new AttemptMaker<Void>() {
+            private int count;
+
+            @Override
+            public AttemptResult<Void> process() {
+                switch (count++) {
+                    case 0:
+                    case 1:
+                        return AttemptResults.drain();
+                    case 2:
+                        return AttemptResults.justContinue();
+                    default:
+                        return AttemptResults.justFinish();
+                }
+            }
+        };
+
+        new PollingLoop<Void>(maker, new StopStrategy() {
+            @Override
+            public boolean shouldStop(Attempt failedAttempt) {
+                attemptNumbers.add(failedAttempt.getAttemptNumber());
+                return false;
+            }
+        }, WaitStrategies.noWait()).run();
+
+        // verify
+        assertThat(attemptNumbers).containsExactly(1L, 1L, 1L);
+    }
+
+    @Test
+    public void testDrain_tells_progress() {
+        // prepare
+        final AttemptState[] states = {AttemptState.DRAIN, AttemptState.DRAIN, AttemptState.CONTINUE, AttemptState.CONTINUE};
+        final List<Boolean> progresses = new ArrayList<Boolean>();
+        AttemptMaker<Void> maker = new AttemptMaker<Void>() {
+            private int count;
+
+            @Override
+            public AttemptResult<Void> process() {
+                if (count == states.length) {
+                    return AttemptResults.justFinish();
+                }
+                return states[count++] == AttemptState.DRAIN ? AttemptResults.<Void>drain() : AttemptResults.<Void>justContinue();
+            }
+        };
+
+        new PollingLoop<Void>(maker, StopStrategies.neverStop(), new WaitStrategy() {
+            @Override
+            public long computeWaitTime(Attempt failedAttempt) {
+                progresses.add(DefaultAttempt.detailsOf(failedAttempt).madeProgress());
+                return 0L;
+            }
+        }).run();
+
+        // verify
+        assertThat(progresses).containsExactly(true, false);
+    }
+
+    @Test
+    public void testContinueAfter_hint_passed_to_strategy() {
+        // prepare
+        final List<Long> hints = new ArrayList<Long>();
+        AttemptMaker<Void> maker = new AttemptMaker<Void>() {
+            private int count;
+
+            @Override
+            public AttemptResult<Void> process() {
+                switch (count++) {
+                    case 0:
+                        return AttemptResults.continueAfter(2500L, TimeUnit.MICROSECONDS);
+                    case 1:
+                        return AttemptResults.justContinue();
+                    default:
+                        return AttemptResults.justFinish();
+                }
+            }
+        };
+
+        new PollingLoop<Void>(maker, StopStrategies.neverStop(), new WaitStrategy() {
+            @Override
+            public long computeWaitTime(Attempt failedAttempt) {
+                DetailedAttempt attempt = DefaultAttempt.detailsOf(failedAttempt);
+                hints.add(attempt.hasWaitHint() ? attempt.getWaitHint() : null);
+                return 0L;
+            }
+        }).run();
+
+        // verify
+        assertThat(hints).containsExactly(2L, null);
+    }
+
+    @Test
+    public void testDetails_combined() {
+        // prepare
+        final List<DetailedAttempt> attempts = new ArrayList<DetailedAttempt>();
+        AttemptMaker<Void> maker = new AttemptMaker<Void>() {
+            private int count;
+
+            @Override
+            public AttemptResult<Void> process() {
+                if (count++ == 0) {
+                    return AttemptResults.<Void>continueAt(0.4D).withWaitHint(3L, TimeUnit.MILLISECONDS).withProgress();
+                }
+                return AttemptResults.justFinish();
+            }
+        };
+
+        new PollingLoop<Void>(maker, StopStrategies.neverStop(), new WaitStrategy() {
+            @Override
+            public long computeWaitTime(Attempt failedAttempt) {
+                attempts.add(DefaultAttempt.detailsOf(failedAttempt));
+                return 0L;
+            }
+        }).run();
+
+        // verify
+        assertThat(attempts).hasSize(1);
+        assertThat(attempts.get(0).madeProgress()).isTrue();
+        assertThat(attempts.get(0).getWaitHint()).isEqualTo(3L);
+        assertThat(attempts.get(0).getReportedProgress()).isEqualTo(0.4D);
+    }
+
+    @Test
+    public void testAdaptiveWait_shared_by_loops() {
+        // prepare
+        final WaitStrategy adaptiveWait = WaitStrategies.adaptiveWait(1L, 8L, TimeUnit.MILLISECONDS, 0.5D, 0L, 2D);
+        final List<Long> waits = new ArrayList<Long>();
+        WaitStrategy recordingWait = new WaitStrategy() {
+            @Override
+            public long computeWaitTime(Attempt failedAttempt) {
+                long waitTime = adaptiveWait.computeWaitTime(failedAttempt);
+                waits.add(waitTime);
+                return waitTime;
+            }
+        };
+
+        // verify
+        PollingLoop<Void> first = new PollingLoop<Void>(new TryFixedTimesAttemptMaker(3), StopStrategies.neverStop(), recordingWait);
+        PollingLoop<Void> second = new PollingLoop<Void>(new TryFixedTimesAttemptMaker(3), StopStrategies.neverStop(), recordingWait);
+        first.step();
+        first.step();
+        second.step();
+        first.step();
+        second.step();
+        assertThat(waits).containsExactly(2L, 4L, 2L, 8L, 4L);
+    }
+
+    @Test
+    public void testLatency_passed_to_strategy() {
+        // prepare
+        final long[] sleeps = {20L, 20L, 70L};
+        final List<Long> latencies = new ArrayList<Long>();
+        final List<Long> averageLatencies = new ArrayList<Long>();
+        AttemptMaker<Void> maker = new AttemptMaker<Void>() {
+            private int count;
+
+            @Override
+            public AttemptResult<Void> process() throws Exception {
+                if (count == sleeps.length) {
+                    return AttemptResults.justFinish();
+                }
+                Thread.sleep(sleeps[count++]);
+                return AttemptResults.justContinue();
+            }
+        };
+
+        new PollingLoop<Void>(maker, StopStrategies.neverStop(), new WaitStrategy() {
+            @Override
+            public long computeWaitTime(Attempt failedAttempt) {
+                DetailedAttempt attempt = DefaultAttempt.detailsOf(failedAttempt);
+                latencies.add(attempt.getLatency());
+                averageLatencies.add(attempt.getAverageLatency());
+                return 0L;
+            }
+        }).run();
+
+        // verify
+        assertThat(latencies).hasSize(3);
+        // attempts are timed once latency is asked for
+        assertThat(latencies.get(0)).isEqualTo(-1L);
+        assertThat(latencies.get(1)).isBetween(20L, 40L);
+        assertThat(latencies.get(2)).isBetween(70L, 90L);
+        // 20 + 0.2 * (70 - 20)
+        assertThat(averageLatencies.get(2)).isBetween(30L, 45L);
+    }
+
+    @Test
+    public void testDeadline_clamps_waits() throws Exception {
+        // prepare
+        final AtomicInteger attempts = new AtomicInteger();
+        Poller<Void> poller = PollerBuilder.<Void>newBuilder()
+                .withWaitStrategy(WaitStrategies.fixedWait(1, TimeUnit.SECONDS))
+                .withDeadline(System.currentTimeMillis() + 300L)
+                .polling(new AttemptMaker<Void>() {
+                    @Override
+                    public AttemptResult<Void> process() throws Exception {
+                        attempts.incrementAndGet();
+                        Thread.sleep(50);
+                        return AttemptResults.justContinue();
+                    }
+                })
+                .build();
+
+        long startTime = System.currentTimeMillis();
+        try {
+            poller.start().get();
+            fail();
+        } catch (ExecutionException e) {
+            // verify
+            assertThat(e.getCause()).isInstanceOf(PollerStoppedException.class);
+        }
+        // the second attempt is made just in time, and no wait is made after it
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(System.currentTimeMillis() - startTime).isBetween(250L, 450L);
+    }
+}
@@ -0,0 +1,62 @@
+package com.dyngr.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.dyngr.Polling;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class KeySetTrackerTest {
+
+    @Test
+    public void testTracker_queries_only_pending_keys() {
+        // prepare
+        List<Integer> taskIds = new ArrayList<Integer>();
+        for (int i = 0; i < 20000; i++) {
+            taskIds.add(i);
+        }
+        final int[] round = new int[1];
+        final List<Integer> queriedPerRound = new ArrayList<Integer>();
+        final KeySetTracker<Integer, String> tracker = new KeySetTracker<Integer, String>(taskIds,
+                new BatchAttemptMaker<Integer, String>() {
+                    @Override
+                    public Map<Integer, AttemptResult<String>> process(Set<Integer> keys) {
+                        assertThat(keys.size()).isLessThanOrEqualTo(500);
+                        queriedPerRound.set(round[0], queriedPerRound.get(round[0]) + keys.size());
+                        Map<Integer, AttemptResult<String>> results = new HashMap<Integer, AttemptResult<String>>();
+                        for (Integer key : keys) {
+                            if (key % 4 == round[0]) {
+                                results.put(key, key == 7 ? AttemptResults.<String>breakFor("lost")
+                                        : AttemptResults.finishWith("task " + key));
+                            }
+                        }
+                        return results;
+                    }
+                }, 500);
+
+        List<String> results = Polling.stopAfterAttempt(10).run(new AttemptMaker<List<String>>() {
+            @Override
+            public AttemptResult<List<String>> process() throws Exception {
+                queriedPerRound.add(0);
+                AttemptResult<List<String>> result = tracker.process();
+                round[0]++;
+                return result;
+            }
+        });
+
+        // verify
+        assertThat(queriedPerRound).containsExactly(20000, 15000, 10000, 5000);
+        assertThat(results).hasSize(20000);
+        assertThat(results.get(0)).isEqualTo("task 0");
+        assertThat(results.get(7)).isNull();
+        assertThat(tracker.getFailure(7)).hasMessage("lost");
+        assertThat(tracker.getResult(19999)).isEqualTo("task 19999");
+        assertThat(tracker.getCompletedCount()).isEqualTo(20000);
+        assertThat(tracker.getPendingCount()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,83 @@
+package com.dyngr.core;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import com.dyngr.Polling;
+import com.dyngr.exception.PollerStoppedException;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class PartitionedPollingTest {
+
+    @Test
+    public void testPartitioned_busy_partitions_polled_more_often() throws Exception {
+        // prepare
+        final AtomicIntegerArray received = new AtomicIntegerArray(8);
+        PartitionedPollingFuture<String> future = Polling.waitPeriodly(50, TimeUnit.MILLISECONDS).template()
+                .runPartitioned(8, new PartitionedAttemptMaker<String>() {
+                    @Override
+                    public AttemptResult<String> process(int partition) {
+                        if (partition == 0) {
+                            return AttemptResults.drainWith("page");
+                        }
+                        if (partition == 1) {
+                            return AttemptResults.finishWith("message");
+                        }
+                        return AttemptResults.justContinue();
+                    }
+                }, 2, new PartitionListener<String>() {
+                    @Override
+                    public void onData(int partition, String data) {
+                        received.incrementAndGet(partition);
+                    }
+                });
+
+        Thread.sleep(200);
+        future.cancel(true);
+
+        // verify
+        assertThat(future.getPartitionCount()).isEqualTo(8);
+        assertThat(future.getActiveCount()).isEqualTo(8);
+        assertThat(future.getAttemptCount(0)).isGreaterThan(20);
+        assertThat(future.getAttemptCount(1)).isGreaterThan(20);
+        assertThat(future.getAttemptCount(2)).isBetween(1L, 5L);
+        assertThat(received.get(0)).isGreaterThan(20);
+        assertThat(received.get(1)).isGreaterThan(20);
+        assertThat(received.get(2)).isEqualTo(0);
+    }
+
+    @Test
+    public void testPartitioned_all_stopped() throws Exception {
+        // prepare
+        PartitionedPollingFuture<Void> future = Polling.stopAfterAttempt(3).template()
+                .runPartitioned(4, new PartitionedAttemptMaker<Void>() {
+                    @Override
+                    public AttemptResult<Void> process(int partition) {
+                        return AttemptResults.justContinue();
+                    }
+                }, 2, new PartitionListener<Void>() {
+                    @Override
+                    public void onData(int partition, Void data) {
+                        fail();
+                    }
+                });
+
+        // verify
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(PollerStoppedException.class);
+            assertThat(e.getCause().getSuppressed()).hasSize(3);
+        }
+        assertThat(future.getActiveCount()).isEqualTo(0);
+        for (int i = 0; i < 4; i++) {
+            assertThat(future.getAttemptCount(i)).isEqualTo(3);
+            assertThat(future.getFailure(i)).isInstanceOf(PollerStoppedException.class);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.dyngr.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dyngr.Poller;
+import com.dyngr.PollerBuilder;
+import com.dyngr.exception.PollerStoppedException;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class PipelinedPollerTest {
+    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+
+    @AfterClass
+    public static void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testPipelined_drains_in_order() throws Exception {
+        // prepare
+        final AtomicInteger backlog = new AtomicInteger(40);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final Random random = new Random();
+        final List<Long> sequences = Collections.synchronizedList(new ArrayList<Long>());
+
+        Poller<String> poller = PollerBuilder.<String>newBuilder()
+                .withScheduler(scheduler)
+                .withWaitStrategy(WaitStrategies.fixedWait(1, TimeUnit.HOURS))
+                .withPipelining(4, new AttemptListener<Object>() {
+                    @Override
+                    public void onAttempt(long sequence, AttemptResult<?> attemptResult) {
+                        sequences.add(sequence);
+                    }
+                })
+                .polling(new AttemptMaker<String>() {
+                    @Override
+                    public AttemptResult<String> process() throws Exception {
+                        int current = running.incrementAndGet();
+                        synchronized (maxRunning) {
+                            maxRunning.set(Math.max(maxRunning.get(), current));
+                        }
+                        Thread.sleep(20 + random.nextInt(20));
+                        running.decrementAndGet();
+                        int remaining = backlog.decrementAndGet();
+                        return remaining >= 0 ? AttemptResults.<String>drainWith("page " + remaining) : AttemptResults.finishWith("done");
+                    }
+                })
+                .build();
+
+        // verify
+        long startTime = System.currentTimeMillis();
+        assertThat(poller.start().get(5, TimeUnit.SECONDS)).isEqualTo("done");
+        assertThat(System.currentTimeMillis() - startTime).isLessThan(40 * 20L);
+        assertThat(maxRunning.get()).isEqualTo(4);
+        for (int i = 0; i < sequences.size(); i++) {
+            assertThat(sequences.get(i)).isEqualTo((long) i);
+        }
+        // drained pages made after the finishing attempt are discarded
+        assertThat(sequences.size()).isGreaterThan(40 - 4);
+    }
+
+    @Test
+    public void testPipelined_depth_one_polls_one_by_one() throws Exception {
+        // prepare
+        final AtomicInteger backlog = new AtomicInteger(10);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        Poller<Void> poller = PollerBuilder.<Void>newBuilder()
+                .withScheduler(scheduler)
+                .withPipelining(1, null)
+                .polling(new AttemptMaker<Void>() {
+                    @Override
+                    public AttemptResult<Void> process() throws Exception {
+                        int current = running.incrementAndGet();
+                        synchronized (maxRunning) {
+                            maxRunning.set(Math.max(maxRunning.get(), current));
+                        }
+                        Thread.sleep(5);
+                        running.decrementAndGet();
+                        return backlog.decrementAndGet() > 0 ? AttemptResults.<Void>drain() : AttemptResults.justFinish();
+                    }
+                })
+                .build();
+
+        // verify
+        poller.start().get(5, TimeUnit.SECONDS);
+        assertThat(backlog.get()).isEqualTo(0);
+        assertThat(maxRunning.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testPipelined_idle_polls_single_attempt() throws Exception {
+        // prepare
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        Poller<Void> poller = PollerBuilder.<Void>newBuilder()
+                .withScheduler(scheduler)
+                .withStopStrategy(StopStrategies.stopAfterAttempt(5))
+                .withPipelining(4, null)
+                .polling(new AttemptMaker<Void>() {
+                    @Override
+                    public AttemptResult<Void> process() throws Exception {
+                        int current = running.incrementAndGet();
+                        synchronized (maxRunning) {
+                            maxRunning.set(Math.max(maxRunning.get(), current));
+                        }
+                        Thread.sleep(10);
+                        running.decrementAndGet();
+                        return AttemptResults.justContinue();
+                    }
+                })
+                .build();
+
+        // verify
+        try {
+            poller.start().get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(PollerStoppedException.class);
+        }
+        assertThat(maxRunning.get()).isEqualTo(1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPipelined_without_scheduler() {
+        PollerBuilder.<Void>newBuilder()
+                .withPipelining(2, null)
+                .polling(new AttemptMaker<Void>() {
+                    @Override
+                    public AttemptResult<Void> process() {
+                        return AttemptResults.justFinish();
+                    }
+                })
+                .build();
+    }
+}
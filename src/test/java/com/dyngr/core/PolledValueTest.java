@@ -0,0 +1,143 @@
+package com.dyngr.core;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.dyngr.Polling;
+import com.dyngr.exception.StaleValueException;
+import com.dyngr.exception.UserBreakException;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class PolledValueTest {
+    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+
+    @AfterClass
+    public static void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testPolledValue_refreshed_ahead() throws Exception {
+        // prepare
+        PolledValue<Integer> value = Polling.stopAfterAttempt(3).template().newPolledValue(new AttemptMaker<Integer>() {
+            private int version;
+
+            @Override
+            public AttemptResult<Integer> process() throws Exception {
+                Thread.sleep(5);
+                return AttemptResults.finishWith(++version);
+            }
+        }, 40, 0, TimeUnit.MILLISECONDS, scheduler);
+
+        try {
+            // verify
+            assertThat(value.get()).isEqualTo(1);
+            Thread.sleep(200);
+            for (int i = 0; i < 1000; i++) {
+                assertThat(value.get()).isGreaterThan(1);
+            }
+            assertThat(value.getMissCount()).isEqualTo(1);
+            assertThat(value.getHitCount()).isEqualTo(1000);
+            assertThat(value.getRefreshCount()).isGreaterThan(3);
+            assertThat(value.getRefreshFailureCount()).isEqualTo(0);
+            assertThat(value.getLastRefreshLatency()).isGreaterThanOrEqualTo(5);
+            assertThat(value.getStaleness()).isLessThan(40);
+        } finally {
+            value.close();
+        }
+    }
+
+    @Test
+    public void testPolledValue_hits_counted_across_threads() throws Exception {
+        // prepare
+        final PolledValue<String> value = Polling.stopAfterAttempt(1).template().newPolledValue(new AttemptMaker<String>() {
+            @Override
+            public AttemptResult<String> process() {
+                return AttemptResults.finishWith("config");
+            }
+        }, 1, 0, TimeUnit.HOURS, scheduler);
+        value.get();
+
+        Thread[] readers = new Thread[4];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        value.get();
+                    }
+                }
+            });
+            readers[i].start();
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        // verify
+        try {
+            // the first read is a miss only if the value is not loaded yet
+            assertThat(value.getMissCount() + value.getHitCount()).isEqualTo(40001);
+        } finally {
+            value.close();
+        }
+    }
+
+    @Test
+    public void testPolledValue_stale_while_failing() throws Exception {
+        // prepare
+        final AtomicBoolean available = new AtomicBoolean(true);
+        PolledValue<String> value = Polling.stopAfterAttempt(1).template().newPolledValue(new AttemptMaker<String>() {
+            @Override
+            public AttemptResult<String> process() {
+                return available.get() ? AttemptResults.finishWith("config") : AttemptResults.<String>breakFor("down");
+            }
+        }, 40, 60, TimeUnit.MILLISECONDS, scheduler);
+
+        try {
+            assertThat(value.get()).isEqualTo("config");
+            available.set(false);
+
+            // verify
+            Thread.sleep(70);
+            assertThat(value.get()).isEqualTo("config");
+            assertThat(value.getRefreshFailureCount()).isGreaterThan(0);
+            Thread.sleep(60);
+            try {
+                value.get();
+                fail();
+            } catch (StaleValueException e) {
+                assertThat(e.getCause()).isInstanceOf(UserBreakException.class);
+            }
+        } finally {
+            value.close();
+        }
+    }
+
+    @Test
+    public void testPolledValue_first_load_failed() {
+        // prepare
+        PolledValue<String> value = Polling.stopAfterAttempt(1).template().newPolledValue(new AttemptMaker<String>() {
+            @Override
+            public AttemptResult<String> process() {
+                return AttemptResults.breakFor("down");
+            }
+        }, 1, 0, TimeUnit.HOURS, scheduler);
+
+        // verify
+        try {
+            value.get();
+            fail();
+        } catch (UserBreakException e) {
+            assertThat(e).hasMessage("down");
+        } finally {
+            value.close();
+        }
+    }
+}
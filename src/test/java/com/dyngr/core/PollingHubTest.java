@@ -0,0 +1,131 @@
+package com.dyngr.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dyngr.Polling;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PollingHubTest {
+    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+    private static final ExecutorService delivery = Executors.newCachedThreadPool();
+
+    @AfterClass
+    public static void tearDown() {
+        scheduler.shutdownNow();
+        delivery.shutdownNow();
+    }
+
+    @Test
+    public void testHub_one_upstream_per_key() throws Exception {
+        // prepare
+        final AtomicInteger created = new AtomicInteger();
+        final AtomicInteger attempts = new AtomicInteger();
+        PollingHub<String, Integer> hub = Polling.stopAfterAttempt(3).template().newHub(
+                new PollingHub.Source<String, Integer>() {
+                    @Override
+                    public AttemptMaker<Integer> create(String key) {
+                        created.incrementAndGet();
+                        return new AttemptMaker<Integer>() {
+                            @Override
+                            public AttemptResult<Integer> process() {
+                                return AttemptResults.finishWith(attempts.incrementAndGet());
+                            }
+                        };
+                    }
+                }, 10, TimeUnit.MILLISECONDS, scheduler, delivery);
+
+        final CountDownLatch received = new CountDownLatch(10 * 3);
+        List<PollingHub<String, Integer>.Subscription> subscriptions = new ArrayList<PollingHub<String, Integer>.Subscription>();
+        for (int i = 0; i < 10; i++) {
+            subscriptions.add(hub.subscribe("config", new PollingHub.Subscriber<Integer>() {
+                @Override
+                public void onValue(Integer value) {
+                    received.countDown();
+                }
+
+                @Override
+                public void onError(Throwable cause) {
+                }
+            }));
+        }
+
+        // verify
+        assertThat(received.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(created.get()).isEqualTo(1);
+        assertThat(hub.getUpstreamCount()).isEqualTo(1);
+        assertThat(hub.getSubscriberCount("config")).isEqualTo(10);
+
+        for (PollingHub<String, Integer>.Subscription subscription : subscriptions) {
+            subscription.unsubscribe();
+        }
+        assertThat(hub.getUpstreamCount()).isEqualTo(0);
+        Thread.sleep(20);
+        int stoppedAt = attempts.get();
+        Thread.sleep(50);
+        assertThat(attempts.get()).isEqualTo(stoppedAt);
+    }
+
+    @Test
+    public void testHub_slow_subscriber_does_not_block_others() throws Exception {
+        // prepare
+        PollingHub<String, Integer> hub = Polling.stopAfterAttempt(3).template().newHub(
+                new PollingHub.Source<String, Integer>() {
+                    @Override
+                    public AttemptMaker<Integer> create(String key) {
+                        return new AttemptMaker<Integer>() {
+                            private int count;
+
+                            @Override
+                            public AttemptResult<Integer> process() {
+                                return AttemptResults.finishWith(count++);
+                            }
+                        };
+                    }
+                }, 5, TimeUnit.MILLISECONDS, scheduler, delivery);
+
+        final AtomicInteger slowReceived = new AtomicInteger();
+        final AtomicInteger fastReceived = new AtomicInteger();
+        PollingHub<String, Integer>.Subscription slow = hub.subscribe("status", new PollingHub.Subscriber<Integer>() {
+            @Override
+            public void onValue(Integer value) {
+                slowReceived.incrementAndGet();
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void onError(Throwable cause) {
+            }
+        });
+        PollingHub<String, Integer>.Subscription fast = hub.subscribe("status", new PollingHub.Subscriber<Integer>() {
+            @Override
+            public void onValue(Integer value) {
+                fastReceived.incrementAndGet();
+            }
+
+            @Override
+            public void onError(Throwable cause) {
+            }
+        });
+        Thread.sleep(200);
+        fast.unsubscribe();
+        slow.unsubscribe();
+
+        // verify
+        assertThat(slowReceived.get()).isEqualTo(1);
+        assertThat(fastReceived.get()).isGreaterThan(10);
+    }
+}
@@ -0,0 +1,150 @@
+package com.dyngr.core;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.dyngr.Polling;
+import com.dyngr.PollingTemplate;
+import com.dyngr.core.PollingPipeline.Node;
+import com.dyngr.core.PollingPipeline.NodeMaker;
+import com.dyngr.core.PollingPipeline.Results;
+import com.dyngr.core.maker.CounterAttemptMaker;
+import com.dyngr.core.maker.TryFixedTimesAttemptMaker;
+import com.dyngr.exception.PollerStoppedException;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class PollingPipelineTest {
+    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+
+    @AfterClass
+    public static void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testPipeline_results_passed_downstream() throws Exception {
+        // prepare
+        PollingTemplate template = Polling.waitPeriodly(10, TimeUnit.MILLISECONDS).template();
+        PollingPipeline.Builder builder = PollingPipeline.newBuilder();
+        final Node<Integer> a = builder.node("A", template, finishAfter(2, 1));
+        final Node<Integer> b = builder.node("B", template, new NodeMaker<Integer>() {
+            @Override
+            public AttemptMaker<Integer> create(Results inputs) {
+                return finishAfter(1, inputs.get(a) + 1);
+            }
+        }, a);
+        final Node<Integer> c = builder.node("C", template, new NodeMaker<Integer>() {
+            @Override
+            public AttemptMaker<Integer> create(Results inputs) {
+                return finishAfter(3, inputs.get(a) * 10);
+            }
+        }, a);
+        final Node<Integer> d = builder.node("D", template, new NodeMaker<Integer>() {
+            @Override
+            public AttemptMaker<Integer> create(Results inputs) {
+                return finishAfter(0, inputs.get(b) + inputs.get(c));
+            }
+        }, b, c);
+
+        Results results = builder.build().start(scheduler).get(5, TimeUnit.SECONDS);
+
+        // verify
+        assertThat(results.get(a)).isEqualTo(1);
+        assertThat(results.get(b)).isEqualTo(2);
+        assertThat(results.get(c)).isEqualTo(10);
+        assertThat(results.get(d)).isEqualTo(12);
+    }
+
+    @Test
+    public void testPipeline_failure_skips_dependents() throws Exception {
+        // prepare
+        PollingTemplate template = Polling.stopAfterAttempt(2).template();
+        PollingPipeline.Builder builder = PollingPipeline.newBuilder();
+        Node<Void> failing = builder.node("failing", template, new CounterAttemptMaker());
+        TryFixedTimesAttemptMaker skippedMaker = new TryFixedTimesAttemptMaker(0);
+        Node<Void> skipped = builder.node("skipped", template, skippedMaker, failing);
+        TryFixedTimesAttemptMaker transitiveMaker = new TryFixedTimesAttemptMaker(0);
+        builder.node("transitive", template, transitiveMaker, skipped);
+        TryFixedTimesAttemptMaker independentMaker = new TryFixedTimesAttemptMaker(1);
+        builder.node("independent", template, independentMaker);
+
+        try {
+            builder.build().start(scheduler).get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            // verify
+            assertThat(e.getCause()).isInstanceOf(PollerStoppedException.class);
+            assertThat(e.getCause().getCause()).isInstanceOf(PollerStoppedException.class);
+        }
+        assertThat(skippedMaker.getTriedNum()).isEqualTo(0);
+        assertThat(independentMaker.getTriedNum()).isEqualTo(2);
+        assertThat(transitiveMaker.getTriedNum()).isEqualTo(0);
+    }
+
+    @Test
+    public void testPipeline_failed_node_maker() throws Exception {
+        // prepare
+        PollingTemplate template = Polling.stopAfterAttempt(1).template();
+        PollingPipeline.Builder builder = PollingPipeline.newBuilder();
+        builder.node("broken", template, new NodeMaker<Void>() {
+            @Override
+            public AttemptMaker<Void> create(Results inputs) {
+                throw new IllegalStateException("broken");
+            }
+        });
+
+        try {
+            builder.build().start(scheduler).get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            // verify
+            assertThat(e.getCause().getCause()).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    public void testPipeline_cancel() throws Exception {
+        // prepare
+        PollingTemplate template = Polling.waitPeriodly(1, TimeUnit.HOURS).template();
+        PollingPipeline.Builder builder = PollingPipeline.newBuilder();
+        CounterAttemptMaker waitingMaker = new CounterAttemptMaker();
+        Node<Void> waiting = builder.node("waiting", template, waitingMaker);
+        TryFixedTimesAttemptMaker downstreamMaker = new TryFixedTimesAttemptMaker(0);
+        builder.node("downstream", template, downstreamMaker, waiting);
+
+        Future<Results> future = builder.build().start(scheduler);
+        Thread.sleep(50);
+        future.cancel(true);
+        Thread.sleep(50);
+
+        // verify
+        assertThat(future.isCancelled()).isTrue();
+        assertThat(waitingMaker.getCount()).isEqualTo(1);
+        assertThat(downstreamMaker.getTriedNum()).isEqualTo(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPipeline_foreign_dependency() {
+        PollingTemplate template = Polling.stopAfterAttempt(1).template();
+        Node<Void> foreign = PollingPipeline.newBuilder().node("foreign", template, new CounterAttemptMaker());
+        PollingPipeline.newBuilder().node("node", template, new CounterAttemptMaker(), foreign);
+    }
+
+    private static AttemptMaker<Integer> finishAfter(final int continues, final int result) {
+        return new AttemptMaker<Integer>() {
+            private int count;
+
+            @Override
+            public AttemptResult<Integer> process() {
+                return count++ < continues ? AttemptResults.<Integer>justContinue() : AttemptResults.finishWith(result);
+            }
+        };
+    }
+}
@@ -0,0 +1,129 @@
+package com.dyngr.core;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dyngr.ListenablePoller;
+import com.dyngr.PollerBuilder;
+import com.dyngr.Polling;
+import com.dyngr.concurrent.ListenableFuture;
+import com.dyngr.concurrent.SettableFuture;
+import com.dyngr.exception.PollerStoppedException;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class QuorumPollerTest {
+    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+
+    @AfterClass
+    public static void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testQuorum_reached() throws Exception {
+        // prepare
+        AtomicInteger committed = new AtomicInteger();
+        SettableFuture<String> replica1 = new SettableFuture<String>();
+        replica1.set("r1");
+        ListenablePoller<String> replica2 = replica("r2", 3, committed);
+        SettableFuture<String> replica3 = new SettableFuture<String>();
+
+        // verify
+        List<String> results = Polling.quorum(2, started(replica1), replica2, started(replica3))
+                .start().get(5, TimeUnit.SECONDS);
+        assertThat(results).containsExactly("r1", "r2");
+        assertThat(committed.get()).isEqualTo(3);
+
+        // the slow one is cancelled
+        try {
+            replica3.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (CancellationException e) {
+            assertThat(replica3.isCancelled()).isTrue();
+        }
+
+        // finished replicas are not polled again
+        Thread.sleep(100);
+        assertThat(committed.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testQuorum_unreachable() throws Exception {
+        // prepare
+        final AtomicInteger slowCount = new AtomicInteger();
+        final CountDownLatch slowAttempted = new CountDownLatch(1);
+        ListenablePoller<Void> slow = PollerBuilder.<Void>newBuilder()
+                .withScheduler(scheduler)
+                .withWaitStrategy(WaitStrategies.fixedWait(1, TimeUnit.HOURS))
+                .polling(new AttemptMaker<Void>() {
+                    @Override
+                    public AttemptResult<Void> process() {
+                        slowCount.incrementAndGet();
+                        slowAttempted.countDown();
+                        return AttemptResults.justContinue();
+                    }
+                })
+                .buildListenable();
+        SettableFuture<Void> stopped1 = new SettableFuture<Void>();
+        SettableFuture<Void> stopped2 = new SettableFuture<Void>();
+
+        Future<List<Void>> future = Polling.quorum(2, slow, started(stopped1), started(stopped2)).start();
+        assertThat(slowAttempted.await(5, TimeUnit.SECONDS)).isTrue();
+        stopped1.setException(new PollerStoppedException("stopped"));
+        stopped2.setException(new PollerStoppedException("stopped"));
+
+        // verify
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause())
+                    .isInstanceOf(PollerStoppedException.class)
+                    .hasMessageContaining("quorum of 2 is unreachable");
+            assertThat(e.getCause().getSuppressed()).hasSize(1);
+        }
+        assertThat(slowCount.get()).isEqualTo(1);
+    }
+
+    private ListenablePoller<String> replica(final String name, final int attempts, final AtomicInteger counter) {
+        return PollerBuilder.<String>newBuilder()
+                .withScheduler(scheduler)
+                .withWaitStrategy(WaitStrategies.fixedWait(20, TimeUnit.MILLISECONDS))
+                .polling(new AttemptMaker<String>() {
+                    private int count;
+
+                    @Override
+                    public AttemptResult<String> process() {
+                        counter.incrementAndGet();
+                        if (++count < attempts) {
+                            return AttemptResults.justContinue();
+                        }
+                        return AttemptResults.finishWith(name);
+                    }
+                })
+                .buildListenable();
+    }
+
+    /**
+     * A poller whose polling is completed by the test.
+     */
+    private static <V> ListenablePoller<V> started(final SettableFuture<V> future) {
+        return new ListenablePoller<V>() {
+            @Override
+            public ListenableFuture<V> start() {
+                return future;
+            }
+        };
+    }
+}
@@ -0,0 +1,121 @@
+package com.dyngr.core;
+
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class RevisitSchedulerTest {
+    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+
+    @AfterClass
+    public static void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testEstimator_converges_to_poisson_rate() {
+        // prepare
+        Random random = new Random(7L);
+        double rate = 1D / 1000D;
+        ChangeRateEstimator estimator = new ChangeRateEstimator(1000);
+        for (int i = 0; i < 1000; i++) {
+            long interval = 500L + random.nextInt(1000);
+            estimator.observe(interval, random.nextDouble() < 1D - Math.exp(-rate * interval));
+        }
+
+        // verify
+        assertThat(estimator.getRate()).isCloseTo(rate, within(rate * 0.15D));
+        assertThat(new ChangeRateEstimator(10).getRate()).isNaN();
+    }
+
+    @Test
+    public void testPolicy_beats_uniform_within_budget() {
+        // prepare
+        double[] rates = {1D, 0.1D, 0.01D, 0.001D, 0D, 50D};
+        double budget = 1D;
+
+        double[] frequencies = RevisitPolicy.allocate(rates, budget, 0.001D, 10D);
+
+        // verify
+        double sum = 0D;
+        double freshness = 0D;
+        double uniformFreshness = 0D;
+        for (int i = 0; i < rates.length; i++) {
+            sum += frequencies[i];
+            freshness += RevisitPolicy.freshness(rates[i], frequencies[i]);
+            uniformFreshness += RevisitPolicy.freshness(rates[i], budget / rates.length);
+        }
+        assertThat(sum).isCloseTo(budget, within(1e-6D));
+        assertThat(freshness).isGreaterThan(uniformFreshness);
+        // a stable source and one changing too often are barely visited
+        assertThat(frequencies[4]).isEqualTo(0.001D);
+        assertThat(frequencies[5]).isLessThan(frequencies[1]);
+    }
+
+    @Test
+    public void testScheduler_visits_changing_source_more_often() throws Exception {
+        // prepare
+        final AtomicInteger finishing = new AtomicInteger();
+        RevisitScheduler<String> revisitScheduler = new RevisitScheduler<String>(100D, 5L, 100L, TimeUnit.MILLISECONDS, scheduler);
+        revisitScheduler.addSource("changing", new AttemptMaker<Void>() {
+            @Override
+            public AttemptResult<Void> process() {
+                return AttemptResults.continueWithProgress();
+            }
+        });
+        revisitScheduler.addSource("stable", new AttemptMaker<Void>() {
+            @Override
+            public AttemptResult<Void> process() {
+                return AttemptResults.justContinue();
+            }
+        });
+        revisitScheduler.addSource("finishing", new AttemptMaker<Void>() {
+            @Override
+            public AttemptResult<Void> process() {
+                return finishing.incrementAndGet() < 3 ? AttemptResults.<Void>justContinue() : AttemptResults.justFinish();
+            }
+        });
+
+        Thread.sleep(600);
+        revisitScheduler.close();
+
+        // verify
+        assertThat(finishing.get()).isEqualTo(3);
+        assertThat(revisitScheduler.getInterval("finishing")).isEqualTo(-1L);
+        assertThat(revisitScheduler.getVisitCount()).isGreaterThan(20L);
+    }
+
+    @Test
+    public void testScheduler_intervals_follow_change_rates() throws Exception {
+        // prepare
+        RevisitScheduler<String> revisitScheduler = new RevisitScheduler<String>(100D, 5L, 100L, TimeUnit.MILLISECONDS, scheduler);
+        revisitScheduler.addSource("changing", new AttemptMaker<Void>() {
+            @Override
+            public AttemptResult<Void> process() {
+                return AttemptResults.continueWithProgress();
+            }
+        });
+        revisitScheduler.addSource("stable", new AttemptMaker<Void>() {
+            @Override
+            public AttemptResult<Void> process() {
+                return AttemptResults.justContinue();
+            }
+        });
+
+        Thread.sleep(500);
+
+        // verify
+        assertThat(revisitScheduler.getChangeRate("changing")).isGreaterThan(revisitScheduler.getChangeRate("stable"));
+        assertThat(revisitScheduler.getInterval("changing")).isLessThan(revisitScheduler.getInterval("stable"));
+        revisitScheduler.close();
+        assertThat(revisitScheduler.getInterval("changing")).isEqualTo(-1L);
+    }
+}
@@ -0,0 +1,105 @@
+package com.dyngr.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dyngr.ListenablePoller;
+import com.dyngr.PollerBuilder;
+import com.dyngr.concurrent.ListenableFuture;
+import com.dyngr.core.maker.CounterAttemptMaker;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SingleFlightTest {
+    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+
+    @AfterClass
+    public static void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testSingleFlight_shares_polling_in_flight() throws Exception {
+        // prepare
+        final SingleFlight<String, String> singleFlight = new SingleFlight<String, String>();
+        final AtomicInteger started = new AtomicInteger();
+        final CountDownLatch ready = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ListenableFuture<String>>> calls = new ArrayList<Future<ListenableFuture<String>>>();
+            for (int i = 0; i < 50; i++) {
+                calls.add(callers.submit(new Callable<ListenableFuture<String>>() {
+                    @Override
+                    public ListenableFuture<String> call() throws Exception {
+                        ready.await();
+                        return singleFlight.poll("resource", resource(started));
+                    }
+                }));
+            }
+            ready.countDown();
+
+            // verify
+            for (Future<ListenableFuture<String>> call : calls) {
+                assertThat(call.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS)).isEqualTo("ready");
+            }
+            assertThat(started.get()).isEqualTo(1);
+            assertThat(singleFlight.getInFlightCount()).isEqualTo(0);
+
+            // a new polling once the previous one completed
+            singleFlight.poll("resource", resource(started)).get(5, TimeUnit.SECONDS);
+            assertThat(started.get()).isEqualTo(2);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSingleFlight_cancel() throws Exception {
+        // prepare
+        SingleFlight<String, Void> singleFlight = new SingleFlight<String, Void>();
+        CounterAttemptMaker maker = new CounterAttemptMaker();
+        ListenablePoller<Void> poller = PollerBuilder.<Void>newBuilder()
+                .withScheduler(scheduler)
+                .withWaitStrategy(WaitStrategies.fixedWait(1, TimeUnit.HOURS))
+                .polling(maker)
+                .buildListenable();
+
+        ListenableFuture<Void> future = singleFlight.poll("resource", poller);
+        Thread.sleep(50);
+
+        // verify
+        assertThat(singleFlight.isInFlight("resource")).isTrue();
+        assertThat(singleFlight.poll("resource", poller)).isSameAs(future);
+        future.cancel(true);
+        assertThat(singleFlight.isInFlight("resource")).isFalse();
+        assertThat(maker.getCount()).isEqualTo(1);
+    }
+
+    private static ListenablePoller<String> resource(final AtomicInteger started) {
+        return PollerBuilder.<String>newBuilder()
+                .withScheduler(scheduler)
+                .withWaitStrategy(WaitStrategies.fixedWait(20, TimeUnit.MILLISECONDS))
+                .polling(new AttemptMaker<String>() {
+                    private int count;
+
+                    @Override
+                    public AttemptResult<String> process() {
+                        if (count++ == 0) {
+                            started.incrementAndGet();
+                        }
+                        return count < 5 ? AttemptResults.<String>justContinue() : AttemptResults.finishWith("ready");
+                    }
+                })
+                .buildListenable();
+    }
+}
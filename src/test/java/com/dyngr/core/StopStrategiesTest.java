@@ -56,6 +56,70 @@ public class StopStrategiesTest {
         assertTrue(StopStrategies.stopAfterDelay(1, TimeUnit.SECONDS).shouldStop(failedAttempt(2, 1001L)));
     }
 
+    @Test
+    public void testStopAtFailureRate() {
+        StopStrategy stopStrategy = StopStrategies.stopAtFailureRate(0.5D, 4);
+        PollingLoop<Void> polling = newPolling();
+        assertFalse(stopStrategy.shouldStop(pollingAttempt(polling, 1, 0L, true)));
+        assertFalse(stopStrategy.shouldStop(pollingAttempt(polling, 2, 0L, true)));
+        assertFalse(stopStrategy.shouldStop(pollingAttempt(polling, 3, 0L, false)));
+        // 2 of the last 4
+        assertTrue(stopStrategy.shouldStop(pollingAttempt(polling, 4, 0L, false)));
+        // 1 of the last 4
+        assertFalse(stopStrategy.shouldStop(pollingAttempt(polling, 5, 0L, false)));
+        assertFalse(stopStrategy.shouldStop(pollingAttempt(polling, 6, 0L, true)));
+        assertTrue(stopStrategy.shouldStop(pollingAttempt(polling, 7, 0L, true)));
+
+        // another polling sharing the strategy
+        PollingLoop<Void> otherPolling = newPolling();
+        assertFalse(stopStrategy.shouldStop(pollingAttempt(otherPolling, 1, 0L, true)));
+        assertTrue(stopStrategy.shouldStop(pollingAttempt(polling, 8, 0L, true)));
+    }
+
+    @Test
+    public void testStopAtFailureRate_time_window() {
+        StopStrategy stopStrategy = StopStrategies.stopAtFailureRate(0.8D, 100, 10L, TimeUnit.SECONDS, 3);
+        PollingLoop<Void> polling = newPolling();
+        assertFalse(stopStrategy.shouldStop(pollingAttempt(polling, 1, 0L, true)));
+        assertFalse(stopStrategy.shouldStop(pollingAttempt(polling, 2, 1000L, true)));
+        for (int i = 3; i <= 12; i++) {
+            assertFalse(stopStrategy.shouldStop(pollingAttempt(polling, i, i * 1000L, false)));
+        }
+        assertFalse(stopStrategy.shouldStop(pollingAttempt(polling, 13, 14000L, true)));
+        assertFalse(stopStrategy.shouldStop(pollingAttempt(polling, 14, 14500L, true)));
+        assertFalse(stopStrategy.shouldStop(pollingAttempt(polling, 15, 20000L, true)));
+        // attempts up to 11s are out of the window, 4 of the last 5 failed
+        assertTrue(stopStrategy.shouldStop(pollingAttempt(polling, 16, 21000L, true)));
+        // a long pause clears the window
+        assertFalse(stopStrategy.shouldStop(pollingAttempt(polling, 17, 60000L, true)));
+    }
+
+    @Test
+    public void testStopAtFailureRate_time_window_size() {
+        StopStrategy stopStrategy = StopStrategies.stopAtFailureRate(0.5D, 4, 10L, TimeUnit.SECONDS, 4);
+        PollingLoop<Void> polling = newPolling();
+        assertFalse(stopStrategy.shouldStop(pollingAttempt(polling, 1, 0L, false)));
+        assertFalse(stopStrategy.shouldStop(pollingAttempt(polling, 2, 0L, false)));
+        assertFalse(stopStrategy.shouldStop(pollingAttempt(polling, 3, 0L, false)));
+        assertFalse(stopStrategy.shouldStop(pollingAttempt(polling, 4, 1000L, false)));
+        assertFalse(stopStrategy.shouldStop(pollingAttempt(polling, 5, 2000L, true)));
+        assertFalse(stopStrategy.shouldStop(pollingAttempt(polling, 6, 3000L, false)));
+        // attempts of the first second are dropped, 2 of the last 4 failed
+        assertTrue(stopStrategy.shouldStop(pollingAttempt(polling, 7, 4000L, true)));
+    }
+
+    private PollingLoop<Void> newPolling() {
+        return PollingLoop.driven(StopStrategies.neverStop(), WaitStrategies.noWait());
+    }
+
+    private Attempt pollingAttempt(PollingLoop<Void> polling, long attemptNumber,
+                                   long delaySinceFirstAttempt, boolean failed) {
+        return DefaultAttempt.newBuilder(attemptNumber, 0L, delaySinceFirstAttempt)
+                .withException(failed ? new RuntimeException() : null)
+                .withPolling(polling)
+                .build();
+    }
+
     private Attempt failedAttempt(long attemptNumber, long delaySinceFirstAttempt) {
         return new DefaultAttempt(attemptNumber, 0L, delaySinceFirstAttempt, null);
     }
@@ -19,6 +19,8 @@
 package com.dyngr.core;
 
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -172,6 +174,191 @@ public class WaitStrategiesTest {
         assertEquals(29L, retryAfterWait.computeWaitTime(failedRetryAfterAttempt(42, 7227)));
     }
 
+    @Test
+    public void testExceptionRouter() {
+        Map<Class<? extends Throwable>, ExceptionWaitHandler<?>> handlers = new LinkedHashMap<Class<? extends Throwable>, ExceptionWaitHandler<?>>();
+        handlers.put(Exception.class, new ExceptionWaitHandler<Exception>() {
+            @Override
+            public long computeWaitTime(Exception throwable) {
+                return 3600 * 1000L;
+            }
+        });
+        handlers.put(RetryAfterException.class, customSleepFunction());
+        handlers.put(RuntimeException.class, zeroSleepFunction());
+        WaitStrategy router = WaitStrategies.exceptionRouter(handlers, WaitStrategies.fixedWait(1000L, TimeUnit.MILLISECONDS));
+
+        // the most specific class wins regardless of order
+        assertEquals(29L, router.computeWaitTime(failedRetryAfterAttempt(42, 7227)));
+        assertEquals(0L, router.computeWaitTime(failedAttempt(42, 7227)));
+        assertEquals(3600 * 1000L, router.computeWaitTime(new DefaultAttempt(42, 0L, 7227L, new Exception())));
+        // routed again from the cache
+        assertEquals(29L, router.computeWaitTime(failedRetryAfterAttempt(43, 7227)));
+
+        // fallback for errors not mapped and attempts without exception
+        assertEquals(1000L, router.computeWaitTime(new DefaultAttempt(42, 0L, 7227L, new AssertionError())));
+        assertEquals(1000L, router.computeWaitTime(emptyAttempt(42)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExceptionRouter_null_handler() {
+        Map<Class<? extends Throwable>, ExceptionWaitHandler<?>> handlers = new LinkedHashMap<Class<? extends Throwable>, ExceptionWaitHandler<?>>();
+        handlers.put(RuntimeException.class, null);
+        WaitStrategies.exceptionRouter(handlers, WaitStrategies.noWait());
+    }
+
+    @Test
+    public void testAdaptiveWait() {
+        WaitStrategy adaptiveWait = WaitStrategies.adaptiveWait(100L, 350L, TimeUnit.MILLISECONDS);
+        PollingLoop<Void> polling = newPolling();
+        assertEquals(200L, adaptiveWait.computeWaitTime(emptyAttempt(1, polling)));
+        assertEquals(300L, adaptiveWait.computeWaitTime(emptyAttempt(2, polling)));
+        assertEquals(350L, adaptiveWait.computeWaitTime(emptyAttempt(3, polling)));
+        assertEquals(175L, adaptiveWait.computeWaitTime(progressAttempt(4, polling)));
+        assertEquals(100L, adaptiveWait.computeWaitTime(progressAttempt(5, polling)));
+        assertEquals(100L, adaptiveWait.computeWaitTime(progressAttempt(6, polling)));
+        assertEquals(200L, adaptiveWait.computeWaitTime(DefaultAttempt.newBuilder(7, 0L, 0L)
+                .withException(new RuntimeException())
+                .withPolling(polling)
+                .build()));
+    }
+
+    @Test
+    public void testAdaptiveWait_multiplicative_increase() {
+        WaitStrategy adaptiveWait = WaitStrategies.adaptiveWait(0L, 10L, TimeUnit.SECONDS, 0.25D, 0L, 2D);
+        PollingLoop<Void> polling = newPolling();
+        assertEquals(2L, adaptiveWait.computeWaitTime(emptyAttempt(1, polling)));
+        assertEquals(4L, adaptiveWait.computeWaitTime(emptyAttempt(2, polling)));
+        assertEquals(8L, adaptiveWait.computeWaitTime(emptyAttempt(3, polling)));
+        assertEquals(2L, adaptiveWait.computeWaitTime(progressAttempt(4, polling)));
+        assertEquals(0L, adaptiveWait.computeWaitTime(progressAttempt(5, polling)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAdaptiveWait_never_increasing() {
+        WaitStrategies.adaptiveWait(0L, 10L, TimeUnit.SECONDS, 0.5D, 0L, 1D);
+    }
+
+    @Test
+    public void testHintedWait() {
+        WaitStrategy hintedWait = WaitStrategies.hintedWait(WaitStrategies.fixedWait(1L, TimeUnit.SECONDS),
+                100L, 10000L, TimeUnit.MILLISECONDS);
+        assertEquals(2500L, hintedWait.computeWaitTime(hintedAttempt(1, 2500L)));
+        assertEquals(100L, hintedWait.computeWaitTime(hintedAttempt(2, 0L)));
+        assertEquals(10000L, hintedWait.computeWaitTime(hintedAttempt(3, 40000L)));
+        assertEquals(1000L, hintedWait.computeWaitTime(emptyAttempt(4)));
+    }
+
+    @Test
+    public void testAtLeastHinted() {
+        WaitStrategy atLeastHinted = WaitStrategies.atLeastHinted(WaitStrategies.fixedWait(1L, TimeUnit.SECONDS));
+        assertEquals(2500L, atLeastHinted.computeWaitTime(hintedAttempt(1, 2500L)));
+        assertEquals(1000L, atLeastHinted.computeWaitTime(hintedAttempt(2, 500L)));
+        assertEquals(1000L, atLeastHinted.computeWaitTime(emptyAttempt(3)));
+    }
+
+    @Test
+    public void testEtaWait() {
+        WaitStrategy etaWait = WaitStrategies.etaWait(100L, 30000L, TimeUnit.MILLISECONDS);
+        PollingLoop<Void> polling = newPolling();
+        assertEquals(100L, etaWait.computeWaitTime(reportingAttempt(1, 0L, 0.1D, polling)));
+        // 10% per second, 60% to go
+        assertEquals(6000L, etaWait.computeWaitTime(reportingAttempt(2, 3000L, 0.4D, polling)));
+        assertEquals(100L, etaWait.computeWaitTime(reportingAttempt(3, 9000L, 0.995D, polling)));
+        assertEquals(100L, etaWait.computeWaitTime(emptyAttempt(4)));
+    }
+
+    @Test
+    public void testEtaWait_capped() {
+        WaitStrategy etaWait = WaitStrategies.etaWait(100L, 5000L, TimeUnit.MILLISECONDS);
+        PollingLoop<Void> polling = newPolling();
+        assertEquals(100L, etaWait.computeWaitTime(reportingAttempt(1, 0L, 0.5D, polling)));
+        assertEquals(1000L, etaWait.computeWaitTime(reportingAttempt(2, 1000L, 0.5D, polling)));
+        assertEquals(5000L, etaWait.computeWaitTime(reportingAttempt(3, 2000L, 0.51D, polling)));
+
+        // another polling sharing the strategy
+        PollingLoop<Void> otherPolling = newPolling();
+        assertEquals(100L, etaWait.computeWaitTime(reportingAttempt(1, 0L, 0.0D, otherPolling)));
+        assertEquals(1000L, etaWait.computeWaitTime(reportingAttempt(2, 1000L, 0.5D, otherPolling)));
+    }
+
+    @Test
+    public void testEtaWait_first_report_late() {
+        WaitStrategy etaWait = WaitStrategies.etaWait(100L, 30000L, TimeUnit.MILLISECONDS);
+        PollingLoop<Void> polling = newPolling();
+        assertEquals(100L, etaWait.computeWaitTime(reportingAttempt(3, 2000L, 0.0D, polling)));
+        // 25% per second, 50% to go
+        assertEquals(2000L, etaWait.computeWaitTime(reportingAttempt(4, 4000L, 0.5D, polling)));
+    }
+
+    @Test
+    public void testHintedWait_foreign_attempt() {
+        WaitStrategy hintedWait = WaitStrategies.hintedWait(WaitStrategies.fixedWait(700L, TimeUnit.MILLISECONDS),
+                100L, 5000L, TimeUnit.MILLISECONDS);
+        Attempt foreignAttempt = new Attempt() {
+            @Override
+            public long getAttemptNumber() {
+                return 1L;
+            }
+
+            @Override
+            public boolean hasException() {
+                return false;
+            }
+
+            @Override
+            public Throwable getExceptionCause() {
+                return null;
+            }
+
+            @Override
+            public long getDelaySinceFirstAttempt() {
+                return 0L;
+            }
+        };
+        assertEquals(700L, hintedWait.computeWaitTime(foreignAttempt));
+    }
+
+    @Test
+    public void testLatencyProportionalWait() {
+        WaitStrategy latencyWait = WaitStrategies.latencyProportionalWait(9D, 100L, 5000L, TimeUnit.MILLISECONDS);
+        assertEquals(100L, latencyWait.computeWaitTime(timedAttempt(1, -1L)));
+        assertEquals(100L, latencyWait.computeWaitTime(timedAttempt(2, 5L)));
+        assertEquals(1800L, latencyWait.computeWaitTime(timedAttempt(3, 200L)));
+        assertEquals(5000L, latencyWait.computeWaitTime(timedAttempt(4, 3000L)));
+    }
+
+    public Attempt timedAttempt(long attemptNumber, long averageLatency) {
+        return DefaultAttempt.newBuilder(attemptNumber, 0L, 0L).withLatency(averageLatency, averageLatency).build();
+    }
+
+    public Attempt reportingAttempt(long attemptNumber, long delaySinceFirstAttempt, double reportedProgress,
+                                    PollingLoop<?> polling) {
+        return DefaultAttempt.newBuilder(attemptNumber, 0L, delaySinceFirstAttempt)
+                .withReportedProgress(reportedProgress)
+                .withPolling(polling)
+                .build();
+    }
+
+    public Attempt hintedAttempt(long attemptNumber, long waitHint) {
+        return DefaultAttempt.newBuilder(attemptNumber, 0L, 0L).withWaitHint(waitHint).build();
+    }
+
+    public Attempt emptyAttempt(long attemptNumber) {
+        return DefaultAttempt.newBuilder(attemptNumber, 0L, 0L).withProgress(false).build();
+    }
+
+    public PollingLoop<Void> newPolling() {
+        return PollingLoop.driven(StopStrategies.neverStop(), WaitStrategies.noWait());
+    }
+
+    public Attempt emptyAttempt(long attemptNumber, PollingLoop<?> polling) {
+        return DefaultAttempt.newBuilder(attemptNumber, 0L, 0L).withPolling(polling).build();
+    }
+
+    public Attempt progressAttempt(long attemptNumber, PollingLoop<?> polling) {
+        return DefaultAttempt.newBuilder(attemptNumber, 0L, 0L).withProgress(true).withPolling(polling).build();
+    }
+
     public Attempt failedAttempt(long attemptNumber, long delaySinceFirstAttempt) {
         return new DefaultAttempt(attemptNumber, 0L, delaySinceFirstAttempt, new RuntimeException());
     }